@@ -0,0 +1,70 @@
+package com.renoirtan.badcodegsce.benchmarks;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.renoirtan.badcodegsce.musicquiz.BatchAuthenticator;
+import com.renoirtan.badcodegsce.musicquiz.Player;
+import com.renoirtan.badcodegsce.musicquiz.Player.PlayerImportBean;
+
+/**
+ * Authenticating many players one after the other and in parallel with a
+ * {@link BatchAuthenticator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchAuthenticatorBenchmark {
+    @Param({"1000", "100000"})
+    public int count;
+
+    private ArrayList<BatchAuthenticator.Credential> credentials;
+    private BatchAuthenticator authenticator;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.credentials = new ArrayList<>(this.count);
+        for (int index = 0; index < this.count; index++) {
+            PlayerImportBean bean = PlayerImportBean.newUser(
+                "player" + index,
+                "password"
+            );
+            this.credentials.add(new BatchAuthenticator.Credential(
+                new Player(bean),
+                "password"
+            ));
+        }
+        this.authenticator = new BatchAuthenticator();
+    }
+
+    @Benchmark
+    public int sequential() throws Exception {
+        int authenticated = 0;
+        for (BatchAuthenticator.Credential credential : this.credentials) {
+            if (credential.getPlayer().authenticate(credential.getPassword())) {
+                authenticated++;
+            }
+        }
+        return authenticated;
+    }
+
+    @Benchmark
+    public BatchAuthenticator.Result parallel() {
+        return this.authenticator.authenticate(this.credentials);
+    }
+}
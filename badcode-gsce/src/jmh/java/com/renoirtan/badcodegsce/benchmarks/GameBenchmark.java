@@ -0,0 +1,66 @@
+package com.renoirtan.badcodegsce.benchmarks;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.renoirtan.badcodegsce.musicquiz.BotGuessSource;
+import com.renoirtan.badcodegsce.musicquiz.BotStrategy;
+import com.renoirtan.badcodegsce.musicquiz.Game;
+import com.renoirtan.badcodegsce.musicquiz.GameRandom;
+import com.renoirtan.badcodegsce.musicquiz.Player;
+import com.renoirtan.badcodegsce.musicquiz.Song;
+
+/**
+ * A headless game of bots, one turn at a time. The bots never miss, so
+ * nobody is eliminated; when the songs run out they are added again.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+    @Param({"8", "1000"})
+    public int players;
+
+    private ArrayList<Song> catalog;
+    private Game game;
+
+    @Setup
+    public void setUp() {
+        this.catalog = new ArrayList<>();
+        for (int song = 0; song < 1000; song++) {
+            this.catalog.add(new Song("Song " + song, "Artist " + song));
+        }
+        this.game = new Game(42L, 1);
+        this.game.getSongsManager().setSwapRemove(true);
+        for (int player = 0; player < this.players; player++) {
+            this.game.getPlayersManager().addPlayer(new Player("Bot " + player, player));
+        }
+        this.game.setIO(null, new BotGuessSource(
+            BotStrategy.alwaysCorrect(),
+            new GameRandom(7L)
+        ));
+    }
+
+    @Benchmark
+    public boolean playOnce() throws Exception {
+        if (this.game.getSongsManager().isEmpty()) {
+            this.game.getSongsManager().addSongs(this.catalog);
+        }
+        return this.game.playOnce();
+    }
+}
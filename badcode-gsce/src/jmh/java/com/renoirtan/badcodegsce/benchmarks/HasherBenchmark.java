@@ -0,0 +1,49 @@
+package com.renoirtan.badcodegsce.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.renoirtan.badcodegsce.authentification.Hasher;
+
+/**
+ * Hashing credentials, on one thread and on every core.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HasherBenchmark {
+    public String username = "player12345";
+    public String password = "correct horse battery staple";
+
+    /**
+     * Hash with a new {@link Hasher} each time instead of the pooled one.
+     */
+    @Benchmark
+    public int newHasherPerCall() throws Exception {
+        return new Hasher().hash(this.username + this.password).toIntSafe();
+    }
+
+    @Benchmark
+    public int hashUsernameAndPassword() throws Exception {
+        return Hasher.hashUsernameAndPassword(this.username, this.password);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int hashUsernameAndPasswordContended() throws Exception {
+        return Hasher.hashUsernameAndPassword(this.username, this.password);
+    }
+}
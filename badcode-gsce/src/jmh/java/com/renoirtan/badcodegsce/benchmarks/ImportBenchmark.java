@@ -0,0 +1,84 @@
+package com.renoirtan.badcodegsce.benchmarks;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.renoirtan.badcodegsce.musicquiz.Player;
+import com.renoirtan.badcodegsce.musicquiz.PlayersManager;
+import com.renoirtan.badcodegsce.musicquiz.Song;
+import com.renoirtan.badcodegsce.musicquiz.SongsManager;
+
+/**
+ * Reading players and songs from json, both through Gson into lists and
+ * streamed straight into managers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImportBenchmark {
+    @Param({"1000", "100000"})
+    public int count;
+
+    private String players;
+    private String songs;
+
+    @Setup
+    public void setUp() {
+        StringBuilder players = new StringBuilder("[");
+        StringBuilder songs = new StringBuilder("[");
+        for (int index = 0; index < this.count; index++) {
+            String separator = index == 0 ? "" : ",";
+            players.append(String.format(
+                "%s{\"username\": \"player%d\", \"authId\": %d}",
+                separator,
+                index,
+                index * 7919
+            ));
+            songs.append(String.format(
+                "%s{\"name\": \"Song %d\", \"artist\": \"Artist %d\"}",
+                separator,
+                index,
+                index % 500
+            ));
+        }
+        this.players = players.append("]").toString();
+        this.songs = songs.append("]").toString();
+    }
+
+    @Benchmark
+    public Object importPlayersFromJson() throws Exception {
+        return Player.importPlayersFromJson(new StringReader(this.players));
+    }
+
+    @Benchmark
+    public PlayersManager streamPlayersFromJson() throws Exception {
+        PlayersManager manager = new PlayersManager();
+        Player.importPlayersFromJson(new StringReader(this.players), manager);
+        return manager;
+    }
+
+    @Benchmark
+    public Object importSongsFromJson() throws Exception {
+        return Song.importSongsFromJson(new StringReader(this.songs));
+    }
+
+    @Benchmark
+    public SongsManager streamSongsFromJson() throws Exception {
+        return new SongsManager(Song.streamSongsFromJson(new StringReader(this.songs)));
+    }
+}
@@ -0,0 +1,80 @@
+package com.renoirtan.badcodegsce.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.renoirtan.badcodegsce.musicquiz.GuessMatcher;
+import com.renoirtan.badcodegsce.musicquiz.Song;
+
+/**
+ * Building the prompt of a song and checking guesses against it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SongBenchmark {
+    @Param({"EXACT", "NORMALIZED", "FUZZY"})
+    public String matcher;
+
+    @Param({
+        "Laughing Outside The Moon",
+        "laughing outside the moon!",
+        "laughing outside teh moon!",
+        "Something else entirely"
+    })
+    public String guess;
+
+    private Song song;
+    private GuessMatcher guessMatcher;
+
+    @Setup
+    public void setUp() {
+        this.song = new Song("Laughing Outside The Moon", "Ball");
+        switch (this.matcher) {
+            case "NORMALIZED":
+                this.guessMatcher = GuessMatcher.NORMALIZED;
+                break;
+            case "FUZZY":
+                this.guessMatcher = GuessMatcher.fuzzy(2);
+                break;
+            default:
+                this.guessMatcher = GuessMatcher.EXACT;
+                break;
+        }
+    }
+
+    /**
+     * Get the prompt of a song which has been asked before.
+     */
+    @Benchmark
+    public String getPrompt() throws Exception {
+        return this.song.getPrompt();
+    }
+
+    /**
+     * Build the prompt of a song asked for the first time.
+     */
+    @Benchmark
+    public String getPromptFirstTime() throws Exception {
+        return new Song(this.guess, "Ball").getPrompt();
+    }
+
+    @Benchmark
+    public boolean checkGuess() {
+        return this.song.checkGuess(this.guess, this.guessMatcher);
+    }
+}
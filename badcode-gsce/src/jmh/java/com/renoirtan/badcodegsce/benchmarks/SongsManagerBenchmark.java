@@ -0,0 +1,75 @@
+package com.renoirtan.badcodegsce.benchmarks;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.renoirtan.badcodegsce.musicquiz.GameRandom;
+import com.renoirtan.badcodegsce.musicquiz.Song;
+import com.renoirtan.badcodegsce.musicquiz.SongsManager;
+
+/**
+ * Filling a {@link SongsManager} and drawing songs from it at several
+ * catalog sizes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SongsManagerBenchmark {
+    @Param({"100", "10000", "1000000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean swapRemove;
+
+    private ArrayList<Song> catalog;
+    private SongsManager manager;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.catalog = new ArrayList<>(this.size);
+        for (int song = 0; song < this.size; song++) {
+            this.catalog.add(new Song("Song " + song, "Artist " + song));
+        }
+        this.manager = new SongsManager(new GameRandom(42L))
+            .setSwapRemove(this.swapRemove);
+        this.manager.addSongs(this.catalog);
+    }
+
+    /**
+     * Build a manager holding the whole catalog.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public SongsManager addSongs() {
+        SongsManager manager = new SongsManager(new GameRandom(42L))
+            .setSwapRemove(this.swapRemove);
+        manager.addSongs(this.catalog);
+        return manager;
+    }
+
+    /**
+     * Draw a random song and put it back, so the catalog keeps its size.
+     */
+    @Benchmark
+    public Song popSong() {
+        Song song = this.manager.popSong();
+        this.manager.addSong(song);
+        return song;
+    }
+}
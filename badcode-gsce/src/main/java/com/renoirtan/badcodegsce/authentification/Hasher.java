@@ -1,13 +1,35 @@
 package com.renoirtan.badcodegsce.authentification;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
 import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.stream.IntStream;
 
 import org.apache.commons.codec.digest.DigestUtils;
 
 public class Hasher {
+    /**
+     * How much of a file is memory mapped at a time when hashing it.
+     */
+    public static final long MAP_SIZE = 64L * 1024 * 1024;
+
+    /**
+     * Files smaller than this are read instead of being memory mapped,
+     * since mapping small files costs more than reading them.
+     */
+    public static final long MIN_MAP_SIZE = 1024L * 1024;
+
+    /**
+     * The size of the buffer used to read streams.
+     */
+    protected static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
     public static int sha256ToInt(final byte[] bytes) throws Exception {
         if (bytes.length < 32) {
             throw new Exception("Byte array must be at least 32 bytes long.");
@@ -22,6 +44,32 @@ public class Hasher {
         return result;
     }
 
+    /**
+     * Fold the first 32 bytes of a digest into a long by XOR-ing its four
+     * 8-byte words together, so that every byte of the digest affects the
+     * result. Unlike {@link #sha256ToInt(byte[])}, which only keeps 4 bytes,
+     * this is wide enough to identify millions of players without
+     * collisions.
+     * 
+     * @param bytes The digest.
+     * @return The digest as a long.
+     * @throws Exception If the digest is shorter than 32 bytes.
+     */
+    public static long sha256ToLong(final byte[] bytes) throws Exception {
+        if (bytes.length < 32) {
+            throw new Exception("Byte array must be at least 32 bytes long.");
+        }
+        long result = 0;
+        for (int word = 0; word < 32; word += 8) {
+            long value = 0;
+            for (int index = word; index < word + 8; index++) {
+                value = (value << 8) | (bytes[index] & 0xFF);
+            }
+            result ^= value;
+        }
+        return result;
+    }
+
     public static String byteArrayToString(final byte[] bytes) {
         StringBuilder builder = new StringBuilder();
         for (byte b : bytes) {
@@ -30,24 +78,179 @@ public class Hasher {
         return builder.toString();
     }
 
+    /**
+     * One reusable hasher per thread, so that hashing credentials does not
+     * have to look up a new {@link MessageDigest} every time.
+     */
+    private static final ThreadLocal<Hasher> local = ThreadLocal.withInitial(
+        () -> {
+            try {
+                return new Hasher();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    );
+
+    /**
+     * Get the hasher belonging to the current thread, ready to be used. It
+     * must not be given to other threads.
+     * 
+     * @return The hasher of the current thread.
+     */
+    public static Hasher local() {
+        return Hasher.local.get().reset();
+    }
+
     public static int hashUsernameAndPassword(
         final String username,
         final String password
     ) throws Exception {
-        return new Hasher().hash(username + password).toIntSafe();
+        return Hasher.local().hashToInt(username, password);
+    }
+
+    /**
+     * Hash a username and password into a wide identity, see
+     * {@link #sha256ToLong(byte[])}.
+     * 
+     * @param username The username.
+     * @param password The password.
+     * @return The wide identity.
+     * @throws Exception If the digest could not be computed.
+     */
+    public static long hashUsernameAndPasswordWide(
+        final String username,
+        final String password
+    ) throws Exception {
+        Hasher hasher = Hasher.local();
+        hasher.hashToInt(username, password);
+        return hasher.lastHashToLong();
     }
 
     public byte[] result;
     public MessageDigest hasher;
 
+    /**
+     * A reusable buffer that text is encoded into before being hashed.
+     */
+    protected byte[] buffer;
+
+    /**
+     * A reusable buffer that digests are written into.
+     */
+    protected byte[] digestBuffer;
+
     public Hasher() throws Exception {
         this.hasher = MessageDigest.getInstance("SHA3-256");
+        this.buffer = new byte[64];
+        this.digestBuffer = new byte[this.hasher.getDigestLength()];
+    }
+
+    /**
+     * Discard anything that has been given to the digest but not hashed yet.
+     * 
+     * @return This hasher.
+     */
+    public Hasher reset() {
+        this.hasher.reset();
+        return this;
+    }
+
+    /**
+     * Encode 2 pieces of text one after the other as UTF-8 into the reusable
+     * buffer, the same way {@link String#getBytes(java.nio.charset.Charset)}
+     * encodes {@code first + second}. A surrogate pair split between the 2
+     * pieces is encoded as the single character it makes up.
+     * 
+     * @param first The first piece of text.
+     * @param second The second piece of text.
+     * @return The length of the encoded text.
+     */
+    protected int encodeUtf8(final CharSequence first, final CharSequence second) {
+        int split = first.length();
+        int length = split + second.length();
+        if (length * 3 > this.buffer.length) {
+            this.buffer = Arrays.copyOf(
+                this.buffer,
+                Math.max(length * 3, this.buffer.length * 2)
+            );
+        }
+        byte[] buffer = this.buffer;
+        int position = 0;
+        for (int index = 0; index < length; index++) {
+            char c = index < split ? first.charAt(index) : second.charAt(index - split);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                int next = index + 1;
+                char low = next >= length ? 0 :
+                    next < split ? first.charAt(next) : second.charAt(next - split);
+                if (Character.isHighSurrogate(c) && Character.isLowSurrogate(low)) {
+                    int codePoint = Character.toCodePoint(c, low);
+                    buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                    index++;
+                } else {
+                    buffer[position++] = (byte) '?';
+                }
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Hash 2 pieces of text one after the other and convert the digest into
+     * an int. This gives the same result as
+     * {@code hash(first + second).toIntSafe()}, but the text is encoded into
+     * a reusable buffer instead of being concatenated, so nothing is
+     * allocated once the buffers are big enough.
+     * 
+     * The digest stays inside this hasher and is overwritten by the next
+     * call, so {@link #result} is cleared rather than pointed at it; use
+     * {@link #lastHashToLong()} to get the wide form of the same digest.
+     * 
+     * @param first The first piece of text.
+     * @param second The second piece of text.
+     * @return The hash as an int.
+     * @throws Exception If the digest could not be computed.
+     */
+    public int hashToInt(final CharSequence first, final CharSequence second)
+    throws Exception {
+        int length = this.encodeUtf8(first, second);
+        this.hasher.update(this.buffer, 0, length);
+        this.hasher.digest(this.digestBuffer, 0, this.digestBuffer.length);
+        this.result = null;
+        return Hasher.sha256ToInt(this.digestBuffer);
+    }
+
+    /**
+     * Convert the digest of the last {@link #hashToInt(CharSequence, CharSequence)}
+     * call into a long, see {@link #sha256ToLong(byte[])}.
+     * 
+     * @return The digest as a long.
+     * @throws Exception If the digest is too short.
+     */
+    public long lastHashToLong() throws Exception {
+        return Hasher.sha256ToLong(this.digestBuffer);
     }
 
     public int toIntSafe() throws Exception {
         return Hasher.sha256ToInt(this.result);
     }
 
+    public long toLongSafe() throws Exception {
+        return Hasher.sha256ToLong(this.result);
+    }
+
     public int toInt() {
         try {
             return this.toIntSafe();
@@ -76,31 +279,163 @@ public class Hasher {
         return this.digest();
     }
 
+    /**
+     * Hash the rest of a stream. Streams of regular files are hashed through
+     * their channel (see {@link #hash(File)}); other streams, including
+     * pipes and the console, are read until they end.
+     * 
+     * @param stream The stream.
+     * @return This hasher.
+     * @throws Exception If the stream could not be read.
+     */
     public Hasher hash(InputStream stream) throws Exception {
-        DigestUtils.updateDigest(this.hasher, stream);
+        if (stream instanceof FileInputStream) {
+            FileChannel channel = ((FileInputStream) stream).getChannel();
+            long position = channel.position();
+            long size = channel.size();
+            // Pipes and devices report a size of 0 however much they hold,
+            // so only trust the size when there is something left in it.
+            if (size > position) {
+                this.updateFromChannel(channel, position, size - position);
+                channel.position(size);
+                return this.digest();
+            }
+        }
+        // Not the shared buffer, so hashing one stream does not make this
+        // hasher hold on to a large buffer for the rest of its thread.
+        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        int read;
+        while ((read = stream.read(buffer)) != -1) {
+            this.hasher.update(buffer, 0, read);
+        }
         return this.digest();
     }
 
+    /**
+     * Hash a file. Large files are memory mapped {@link #MAP_SIZE} bytes at
+     * a time, so the file is never copied onto the heap.
+     * 
+     * @param file The file.
+     * @return This hasher.
+     * @throws Exception If the file could not be read.
+     */
     public Hasher hash(File file) throws Exception {
-        DigestUtils.updateDigest(this.hasher, file);
+        try (FileChannel channel = FileChannel.open(file.toPath())) {
+            this.updateFromChannel(channel, 0, channel.size());
+        }
+        return this.digest();
+    }
+
+    /**
+     * Give part of a file channel to the digest.
+     * 
+     * @param channel The channel.
+     * @param position Where to start.
+     * @param length How many bytes to hash.
+     * @throws IOException If the channel could not be read.
+     */
+    protected void updateFromChannel(
+        FileChannel channel,
+        long position,
+        long length
+    ) throws IOException {
+        Hasher.updateFromChannel(this.hasher, channel, position, length);
+    }
+
+    /**
+     * Give part of a file channel to a digest.
+     * 
+     * @param digest The digest.
+     * @param channel The channel.
+     * @param position Where to start.
+     * @param length How many bytes to hash.
+     * @throws IOException If the channel could not be read.
+     */
+    protected static void updateFromChannel(
+        MessageDigest digest,
+        FileChannel channel,
+        long position,
+        long length
+    ) throws IOException {
+        long end = position + length;
+        if (length < MIN_MAP_SIZE) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.max(length, 1));
+            while (position < end) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                buffer.flip();
+                digest.update(buffer);
+                position += read;
+            }
+            return;
+        }
+        while (position < end) {
+            long size = Math.min(MAP_SIZE, end - position);
+            digest.update(
+                channel.map(FileChannel.MapMode.READ_ONLY, position, size)
+            );
+            position += size;
+        }
+    }
+
+    /**
+     * Hash a file as a tree: the file is split into chunks which are hashed
+     * in parallel, and the result is the hash of the chunks' digests one
+     * after the other. This is much faster than {@link #hash(File)} for
+     * very large files on machines with many cores, but gives a different
+     * result, so the 2 cannot be compared.
+     * 
+     * @param file The file.
+     * @param chunkSize The size of each chunk in bytes.
+     * @return This hasher.
+     * @throws Exception If the file could not be read.
+     */
+    public Hasher treeHash(File file, long chunkSize) throws Exception {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive.");
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath())) {
+            long size = channel.size();
+            int chunks = (int) Math.max(1, (size + chunkSize - 1) / chunkSize);
+            int digestLength = this.hasher.getDigestLength();
+            byte[] digests = new byte[chunks * digestLength];
+            String algorithm = this.hasher.getAlgorithm();
+            IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                try {
+                    MessageDigest digest = MessageDigest.getInstance(algorithm);
+                    long position = chunk * chunkSize;
+                    Hasher.updateFromChannel(
+                        digest,
+                        channel,
+                        position,
+                        Math.min(chunkSize, size - position)
+                    );
+                    digest.digest(digests, chunk * digestLength, digestLength);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            this.hasher.update(digests);
+        }
         return this.digest();
     }
 
     public Hasher hash(Object object) throws Exception {
-        // I couldn't use a switch statement here because for some reason
-        // Java only accepts literals.
-        // Thank you for no operator overloading :)
-        Class<?> objectType = object.getClass();
-        if (objectType == byte[].class) {
+        if (object instanceof byte[]) {
             this.hash((byte[]) object);
-        } else if (objectType == String.class) {
+        } else if (object instanceof String) {
             this.hash((String) object);
-        } else if (objectType == ByteBuffer.class) {
+        } else if (object instanceof ByteBuffer) {
             this.hash((ByteBuffer) object);
-        } else if (objectType == InputStream.class) {
+        } else if (object instanceof InputStream) {
             this.hash((InputStream) object);
-        } else if (objectType == File.class) {
+        } else if (object instanceof File) {
             this.hash((File) object);
+        } else if (object instanceof Path) {
+            this.hash(((Path) object).toFile());
         } else {
             this.hash(object.toString());
         }
@@ -1,10 +1,13 @@
 package com.renoirtan.badcodegsce.musicquiz;
 
 import java.io.FileReader;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
 
 import com.google.gson.Gson;
 
@@ -29,6 +32,15 @@ public class App {
             case "deserializeSong":
                 App.deserializeSong(taskArgs);
                 break;
+            case "simulate":
+                App.simulate(taskArgs);
+                break;
+            case "compileSongs":
+                App.compileSongs(taskArgs);
+                break;
+            case "songPoolStats":
+                App.songPoolStats(taskArgs);
+                break;
             case "newPlayer":
                 App.newPlayer(taskArgs);
                 break;
@@ -61,17 +73,27 @@ public class App {
         try {
             System.out.print("Path to JSON file of players: ");
             String playersFilePath = scanner.nextLine();
+            Game game = new Game();
             FileReader jsonFile = new FileReader(playersFilePath);
-            ArrayList<Player> players = Player.importPlayersFromJson(jsonFile);
+            Player.importPlayersFromJson(jsonFile, game.getPlayersManager());
 
-            System.out.print("Path to JSON file of songs: ");
+            System.out.print("Path to JSON file or compiled catalog of songs: ");
             String songsFilePath = scanner.nextLine();
-            jsonFile = new FileReader(songsFilePath);
-            ArrayList<Song> songs = Song.importSongsFromJson(jsonFile);
 
-            Game game = new Game();
-            game.getPlayersManager().addPlayers(players);
-            game.getSongsManager().addSongs(songs);
+            if (songsFilePath.endsWith(".bin")) {
+                game.useCatalog(MappedSongCatalog.open(Paths.get(songsFilePath)));
+            } else {
+                jsonFile = new FileReader(songsFilePath);
+                try (SongJsonIterator songs = Song.streamSongsFromJson(
+                    jsonFile,
+                    new StringPool()
+                )) {
+                    game.getSongsManager().addSongs(songs);
+                }
+            }
+            // Keep reading guesses through the same scanner, which may have
+            // already buffered them.
+            game.setIO(System.out, scanner);
             int songsPassed = game.play();
             System.out.println(String.format("Songs guessed: %d", songsPassed));
         } catch (final Exception e) {
@@ -108,6 +130,7 @@ public class App {
         Game game = new Game();
         game.getPlayersManager().addPlayers(players);
         game.getSongsManager().addSongs(songs);
+        game.setIO(System.out, scanner);
         int songsPassed = 0;
         try {
             songsPassed = game.play();
@@ -146,6 +169,116 @@ public class App {
         System.out.println(song.toEnglish());
     }
 
+    /**
+     * Run many headless games of bots in parallel and report how many turns
+     * are played per second.
+     * 
+     * @param args The number of games, players per game and songs per game,
+     * then the chance of each bot guessing correctly and the master seed.
+     */
+    public static void simulate(String[] args) {
+        int games = App.intArg(args, 0, 10_000);
+        int players = App.intArg(args, 1, 8);
+        int songs = App.intArg(args, 2, 100);
+        double accuracy = args.length > 3 && args[3] != null ?
+            Double.parseDouble(args[3]) : 0.9;
+        long seed = args.length > 4 && args[4] != null ?
+            Long.parseLong(args[4]) : 1L;
+
+        ArrayList<Song> catalog = new ArrayList<>(songs);
+        for (int song = 0; song < songs; song++) {
+            catalog.add(new Song("Song " + song, "Artist " + song));
+        }
+        BotStrategy strategy = BotStrategy.accuracy(accuracy);
+        LongAdder rounds = new LongAdder();
+        LongAdder correct = new LongAdder();
+        long start = System.nanoTime();
+        IntStream.range(0, games).parallel().forEach(gameId -> {
+            Game game = new Game(seed, gameId);
+            game.getSongsManager().setSwapRemove(true).reserve(songs);
+            game.getSongsManager().addSongs(catalog);
+            game.getPlayersManager().reserve(players);
+            for (int player = 0; player < players; player++) {
+                game.getPlayersManager().addPlayer(new Player("Bot " + player, player));
+            }
+            game.setIO(null, new BotGuessSource(
+                strategy,
+                GameRandom.forGame(~seed, gameId)
+            ));
+            try {
+                correct.add(game.play());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            rounds.add(game.getRoundsPlayed());
+        });
+        long elapsed = System.nanoTime() - start;
+        System.out.println(String.format(
+            "Games: %d (%d players, %d songs each)\n" +
+            "Rounds: %d (%d correct)\n" +
+            "Time: %d ms on %d cores\n" +
+            "Rounds per second: %.0f",
+            games,
+            players,
+            songs,
+            rounds.sum(),
+            correct.sum(),
+            elapsed / 1_000_000,
+            Runtime.getRuntime().availableProcessors(),
+            rounds.sum() / (elapsed / 1e9)
+        ));
+    }
+
+    private static int intArg(String[] args, int index, int fallback) {
+        if (args.length > index && args[index] != null) {
+            return Integer.parseInt(args[index]);
+        }
+        return fallback;
+    }
+
+    public static void compileSongs(String[] args) {
+        if (args.length < 2 || args[0] == null || args[1] == null) {
+            System.out.println("Usage: compileSongs <songs.json> <songs.bin>");
+            return;
+        }
+        try (SongJsonIterator songs = Song.streamSongsFromJson(
+            new FileReader(args[0])
+        )) {
+            int count = MappedSongCatalog.compile(songs, Paths.get(args[1]));
+            System.out.println(String.format("Compiled %d songs.", count));
+        } catch (Exception e) {
+            System.err.println(e);
+        }
+    }
+
+    public static void songPoolStats(String[] args) {
+        if (args.length < 1 || args[0] == null) {
+            System.out.println("Usage: songPoolStats <songs.json>");
+            return;
+        }
+        StringPool pool = new StringPool();
+        int songs = 0;
+        try (SongJsonIterator iterator = Song.streamSongsFromJson(
+            new FileReader(args[0]),
+            pool
+        )) {
+            while (iterator.hasNext()) {
+                iterator.next();
+                songs++;
+            }
+        } catch (Exception e) {
+            System.err.println(e);
+            return;
+        }
+        System.out.println(String.format(
+            "Songs: %d\nDistinct strings: %d\nDuplicates: %d\nBytes saved: %d",
+            songs,
+            pool.size(),
+            pool.getDuplicates(),
+            pool.getBytesSaved()
+        ));
+    }
+
     public static void newPlayer(String[] args) {
         System.out.println("Create a new User.");
         String username;
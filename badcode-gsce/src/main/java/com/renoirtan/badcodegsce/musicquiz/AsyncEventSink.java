@@ -0,0 +1,297 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes events to a stream from a thread of its own, so games never wait
+ * for output. Many games can share one sink.
+ * 
+ * Published events go into a ring buffer without taking a lock: each game
+ * claims the next place in the ring with a single atomic increment and puts
+ * its event there. A single writer thread takes events out in order, turns
+ * them into text (see {@link ConsoleEventSink#format(GameEvent, StringBuilder)})
+ * and writes them through a large buffer which is only flushed once the
+ * ring is empty, so a busy sink writes in big batches instead of one line
+ * at a time. An idle writer parks until the next event arrives. If the
+ * ring is full, games park until the writer catches up rather than lose
+ * events.
+ * 
+ * The stream is not closed by {@link #close()}, since it usually belongs to
+ * someone else, such as {@link System#out}.
+ */
+public class AsyncEventSink implements GameEventSink, Closeable {
+    protected AtomicReferenceArray<GameEvent> ring;
+    protected int mask;
+
+    /**
+     * The sequence number of the next event to be published.
+     */
+    protected AtomicLong tail;
+
+    /**
+     * The sequence number of the next event to be taken by the writer.
+     */
+    protected volatile long head;
+
+    /**
+     * The sequence number up to which every event has been written and
+     * flushed. Guarded by this sink's monitor.
+     */
+    protected long flushed;
+
+    /**
+     * How many games are waiting for room in the ring. Only changed while
+     * holding this sink's monitor.
+     */
+    protected volatile int blocked;
+
+    protected Writer out;
+    protected Thread writer;
+
+    /**
+     * Whether the writer thread is parked, or about to park, waiting for an
+     * event.
+     */
+    protected volatile boolean idle;
+    protected volatile boolean closed;
+    protected volatile boolean stopped;
+    protected volatile IOException failure;
+
+    /**
+     * Create a sink with space for 8192 waiting events.
+     * 
+     * @param out Where the events are written.
+     */
+    public AsyncEventSink(OutputStream out) {
+        this(out, 8192);
+    }
+
+    /**
+     * Create a sink.
+     * 
+     * @param out Where the events are written.
+     * @param capacity How many events can wait to be written before games
+     * have to wait, rounded up to a power of 2.
+     */
+    public AsyncEventSink(OutputStream out, int capacity) {
+        this(new BufferedWriter(
+            new OutputStreamWriter(out, StandardCharsets.UTF_8),
+            1 << 16
+        ), capacity);
+    }
+
+    /**
+     * Create a sink writing to a writer.
+     * 
+     * @param out Where the events are written.
+     * @param capacity How many events can wait to be written before games
+     * have to wait, rounded up to a power of 2.
+     */
+    public AsyncEventSink(Writer out, int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.tail = new AtomicLong();
+        this.head = 0;
+        this.flushed = 0;
+        this.blocked = 0;
+        this.out = out;
+        this.idle = false;
+        this.closed = false;
+        this.stopped = false;
+        this.writer = new Thread(this::run, "AsyncEventSink-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Get the error which stopped the writer thread.
+     * 
+     * @return The error, or null if there was none.
+     */
+    public IOException getFailure() {
+        return this.failure;
+    }
+
+    /**
+     * Queue an event to be written. Events published after the sink has
+     * been closed or has failed are ignored.
+     * 
+     * @param event The event.
+     */
+    @Override
+    public void publish(GameEvent event) {
+        if (this.closed || this.stopped) {
+            return;
+        }
+        long sequence = this.tail.getAndIncrement();
+        if (sequence - this.head > this.mask && !this.awaitRoom(sequence)) {
+            return;
+        }
+        // A volatile store, so that either the writer sees the event when it
+        // checks the ring before parking, or we see it idle below.
+        this.ring.set((int) sequence & this.mask, event);
+        if (this.idle) {
+            LockSupport.unpark(this.writer);
+        }
+    }
+
+    /**
+     * Park until the writer has taken the event a full lap behind an event
+     * about to be published. Interrupts are kept for later, since the slot
+     * has already been claimed and must be filled.
+     * 
+     * @param sequence The sequence number of the event.
+     * @return false if the writer thread has stopped.
+     */
+    protected boolean awaitRoom(long sequence) {
+        boolean interrupted = false;
+        synchronized (this) {
+            this.blocked++;
+            try {
+                while (sequence - this.head > this.mask && !this.stopped) {
+                    try {
+                        this.wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                this.blocked--;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return !this.stopped;
+    }
+
+    /**
+     * Wait until every event published so far has been written to the
+     * stream.
+     */
+    @Override
+    public void flush() {
+        long target = this.tail.get();
+        synchronized (this) {
+            while (this.flushed < target && !this.stopped) {
+                try {
+                    this.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Take the next event out of the ring. Only the writer thread calls
+     * this.
+     * 
+     * @return The event, or null if the next event has not been published
+     * yet.
+     */
+    protected GameEvent poll() {
+        long sequence = this.head;
+        int index = (int) sequence & this.mask;
+        GameEvent event = this.ring.get(index);
+        if (event != null) {
+            this.ring.lazySet(index, null);
+            this.head = sequence + 1;
+            if (this.blocked > 0) {
+                synchronized (this) {
+                    this.notifyAll();
+                }
+            }
+        }
+        return event;
+    }
+
+    /**
+     * Check whether the writer thread has nothing more to do: the next
+     * event has not been published and the sink is not being closed.
+     */
+    private boolean isIdle() {
+        if (this.ring.get((int) this.head & this.mask) != null) {
+            return false;
+        }
+        return !this.closed || this.head != this.tail.get();
+    }
+
+    /**
+     * The loop of the writer thread.
+     */
+    protected void run() {
+        StringBuilder text = new StringBuilder(1 << 12);
+        boolean pending = false;
+        try {
+            while (true) {
+                GameEvent event = this.poll();
+                if (event != null) {
+                    ConsoleEventSink.format(event, text);
+                    pending = true;
+                    if (text.length() >= 1 << 12) {
+                        this.out.append(text);
+                        text.setLength(0);
+                    }
+                    continue;
+                }
+                if (pending) {
+                    // Nothing left to take, so write out the batch.
+                    long written = this.head;
+                    this.out.append(text);
+                    text.setLength(0);
+                    this.out.flush();
+                    pending = false;
+                    synchronized (this) {
+                        this.flushed = written;
+                        this.notifyAll();
+                    }
+                    continue;
+                }
+                if (this.closed && this.head == this.tail.get()) {
+                    break;
+                }
+                // Announce that we are about to park, then look again: a
+                // publisher either stored its event before we look, or reads
+                // idle after we set it and unparks us.
+                this.idle = true;
+                if (this.isIdle()) {
+                    LockSupport.park(this);
+                }
+                this.idle = false;
+            }
+        } catch (IOException e) {
+            this.failure = e;
+        } finally {
+            this.stopped = true;
+            synchronized (this) {
+                this.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Write every waiting event and stop the writer thread.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        LockSupport.unpark(this.writer);
+        try {
+            this.writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks the passwords of many players at once, such as when every player
+ * in a tournament checks in. The credentials are split between the threads
+ * of a {@link ForkJoinPool}, and since each thread hashes passwords with its
+ * own {@link com.renoirtan.badcodegsce.authentification.Hasher}, checking
+ * scales with the number of cores.
+ */
+public class BatchAuthenticator {
+    /**
+     * A player and the password they gave.
+     */
+    public static class Credential {
+        protected Player player;
+        protected String password;
+
+        public Credential(Player player, String password) {
+            this.player = player;
+            this.password = password;
+        }
+
+        public Player getPlayer() {
+            return this.player;
+        }
+
+        public String getPassword() {
+            return this.password;
+        }
+    }
+
+    /**
+     * What happened to a credential.
+     */
+    public enum Status {
+        /**
+         * The password was correct.
+         */
+        AUTHENTICATED,
+
+        /**
+         * The password was wrong.
+         */
+        REJECTED,
+
+        /**
+         * The password was not checked because another credential was
+         * rejected first.
+         */
+        SKIPPED
+    }
+
+    /**
+     * The results of checking a batch of credentials, in the same order as
+     * the credentials.
+     */
+    public static class Result {
+        protected Status[] statuses;
+        protected int firstFailure;
+
+        protected Result(Status[] statuses, int firstFailure) {
+            this.statuses = statuses;
+            this.firstFailure = firstFailure;
+        }
+
+        /**
+         * Get what happened to a credential.
+         * 
+         * @param index The index of the credential.
+         * @return The status of the credential.
+         */
+        public Status getStatus(int index) {
+            return this.statuses[index];
+        }
+
+        /**
+         * Check whether a credential was authenticated.
+         * 
+         * @param index The index of the credential.
+         * @return true if the password was correct.
+         */
+        public boolean isAuthenticated(int index) {
+            return this.statuses[index] == Status.AUTHENTICATED;
+        }
+
+        /**
+         * Check whether every credential was authenticated.
+         * 
+         * @return true if every password was correct.
+         */
+        public boolean allAuthenticated() {
+            return this.firstFailure < 0;
+        }
+
+        /**
+         * Get the lowest index of a rejected credential. When every
+         * credential is checked this is always the first rejection in the
+         * batch. When stopping early, credentials before it may have been
+         * skipped, so it is only the first of the rejections found.
+         * 
+         * @return The lowest index of a rejected credential, or -1 if there
+         * were none.
+         */
+        public int getFirstFailure() {
+            return this.firstFailure;
+        }
+
+        /**
+         * Count the credentials with a status.
+         * 
+         * @param status The status.
+         * @return The number of credentials with that status.
+         */
+        public int count(Status status) {
+            int count = 0;
+            for (Status other : this.statuses) {
+                if (other == status) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Checks a range of credentials, splitting it in half until it is small
+     * enough.
+     */
+    protected class Task extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        protected List<Credential> credentials;
+        protected Status[] statuses;
+        protected int from;
+        protected int to;
+        protected boolean stopAtFirstFailure;
+        protected AtomicInteger firstFailure;
+
+        protected Task(
+            List<Credential> credentials,
+            Status[] statuses,
+            int from,
+            int to,
+            boolean stopAtFirstFailure,
+            AtomicInteger firstFailure
+        ) {
+            this.credentials = credentials;
+            this.statuses = statuses;
+            this.from = from;
+            this.to = to;
+            this.stopAtFirstFailure = stopAtFirstFailure;
+            this.firstFailure = firstFailure;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from > BatchAuthenticator.this.threshold) {
+                int middle = (this.from + this.to) >>> 1;
+                RecursiveAction.invokeAll(
+                    new Task(this.credentials, this.statuses, this.from, middle,
+                        this.stopAtFirstFailure, this.firstFailure),
+                    new Task(this.credentials, this.statuses, middle, this.to,
+                        this.stopAtFirstFailure, this.firstFailure)
+                );
+                return;
+            }
+            for (int index = this.from; index < this.to; index++) {
+                if (this.stopAtFirstFailure && this.firstFailure.get() >= 0) {
+                    this.statuses[index] = Status.SKIPPED;
+                    continue;
+                }
+                Credential credential = this.credentials.get(index);
+                boolean authenticated;
+                try {
+                    authenticated = credential.getPlayer().authenticate(
+                        credential.getPassword()
+                    );
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                if (authenticated) {
+                    this.statuses[index] = Status.AUTHENTICATED;
+                } else {
+                    this.statuses[index] = Status.REJECTED;
+                    // Keep the lowest index, whichever thread finds it first.
+                    this.firstFailure.accumulateAndGet(
+                        index,
+                        (current, rejected) ->
+                            current < 0 ? rejected : Math.min(current, rejected)
+                    );
+                }
+            }
+        }
+    }
+
+    protected ForkJoinPool pool;
+
+    /**
+     * The largest number of credentials a single task checks without being
+     * split.
+     */
+    protected int threshold;
+
+    /**
+     * Create an authenticator using the common fork-join pool.
+     */
+    public BatchAuthenticator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create an authenticator using a specific fork-join pool.
+     * 
+     * @param pool The pool whose threads check the credentials.
+     */
+    public BatchAuthenticator(ForkJoinPool pool) {
+        this.pool = pool;
+        this.threshold = 64;
+    }
+
+    /**
+     * Set how many credentials a single task checks without being split.
+     * 
+     * @param threshold The number of credentials, at least 1.
+     * @return This authenticator.
+     */
+    public BatchAuthenticator setThreshold(int threshold) {
+        this.threshold = Math.max(threshold, 1);
+        return this;
+    }
+
+    /**
+     * Check every credential in parallel.
+     * 
+     * @param credentials The credentials to check. The list should support
+     * fast random access.
+     * @return The result of each credential.
+     */
+    public Result authenticate(List<Credential> credentials) {
+        return this.authenticate(credentials, false);
+    }
+
+    /**
+     * Check credentials in parallel.
+     * 
+     * @param credentials The credentials to check. The list should support
+     * fast random access.
+     * @param stopAtFirstFailure If true, credentials which have not been
+     * checked yet are skipped as soon as one is rejected.
+     * @return The result of each credential.
+     * @throws IllegalStateException If a password could not be hashed.
+     */
+    public Result authenticate(
+        List<Credential> credentials,
+        boolean stopAtFirstFailure
+    ) throws IllegalStateException {
+        Status[] statuses = new Status[credentials.size()];
+        AtomicInteger firstFailure = new AtomicInteger(-1);
+        this.pool.invoke(new Task(
+            credentials,
+            statuses,
+            0,
+            credentials.size(),
+            stopAtFirstFailure,
+            firstFailure
+        ));
+        return new Result(statuses, firstFailure.get());
+    }
+}
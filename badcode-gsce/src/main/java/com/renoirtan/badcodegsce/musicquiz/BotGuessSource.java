@@ -0,0 +1,32 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A guess source where every player is a bot answering at once with a
+ * {@link BotStrategy}. Together with a game without output (see
+ * {@link Game#setIO(java.io.PrintStream, GuessSource)}) this runs games
+ * headless, as fast as the game loop allows.
+ */
+public class BotGuessSource implements GuessSource {
+    protected BotStrategy strategy;
+    protected Random rng;
+
+    /**
+     * Create a source for bots.
+     * 
+     * @param strategy How the bots guess.
+     * @param rng The random number generator given to the strategy. This
+     * should belong to a single game, such as a {@link GameRandom}.
+     */
+    public BotGuessSource(BotStrategy strategy, Random rng) {
+        this.strategy = strategy;
+        this.rng = rng;
+    }
+
+    @Override
+    public String nextGuess(Song song, Player player, long timeout, TimeUnit unit) {
+        return this.strategy.guess(song, player, this.rng);
+    }
+}
@@ -0,0 +1,82 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * How a bot player guesses songs. Bots let games run without anyone typing,
+ * such as for load tests, see {@link BotGuessSource}.
+ */
+public interface BotStrategy {
+    /**
+     * Guess the name of a song.
+     * 
+     * @param song The song.
+     * @param player The bot player guessing.
+     * @param rng The random number generator of the bot's game.
+     * @return The guess, or null to give no guess.
+     */
+    String guess(Song song, Player player, Random rng);
+
+    /**
+     * Create a strategy which always guesses correctly.
+     * 
+     * @return The strategy.
+     */
+    static BotStrategy alwaysCorrect() {
+        return (song, player, rng) -> song.getName();
+    }
+
+    /**
+     * Create a strategy which guesses correctly some of the time, for games
+     * using the default {@link GuessMatcher#EXACT} matcher.
+     * 
+     * @param accuracy The chance of each guess being correct, from 0 to 1.
+     * @return The strategy.
+     */
+    static BotStrategy accuracy(double accuracy) {
+        return BotStrategy.accuracy(accuracy, GuessMatcher.EXACT);
+    }
+
+    /**
+     * Create a strategy which guesses correctly some of the time.
+     * 
+     * @param accuracy The chance of each guess being correct, from 0 to 1.
+     * @param matcher The matcher of the bot's game, which the wrong guesses
+     * are made not to match, see {@link #wrongGuess(Song, GuessMatcher)}.
+     * @return The strategy.
+     */
+    static BotStrategy accuracy(double accuracy, GuessMatcher matcher) {
+        return (song, player, rng) -> rng.nextDouble() < accuracy ?
+            song.getName() : BotStrategy.wrongGuess(song, matcher);
+    }
+
+    /**
+     * Build a guess which does not match the name of a song. The guess is
+     * the name followed by one more letter than the matcher allows typos,
+     * so it is neither the name itself nor close enough to it, even once
+     * trimmed and normalised.
+     * 
+     * @param song The song.
+     * @param matcher The matcher the guess is checked with.
+     * @return The wrong guess.
+     */
+    static String wrongGuess(Song song, GuessMatcher matcher) {
+        String name = song.getName() == null ? "" : song.getName();
+        return name + "x".repeat(matcher.getMaxDistance() + 1);
+    }
+
+    /**
+     * Create a strategy which replays recorded guesses in order, ignoring
+     * the song. Once the guesses run out, the bot gives no guesses. The
+     * strategy keeps its place in the trace, so each game needs its own.
+     * 
+     * @param trace The recorded guesses.
+     * @return The strategy.
+     */
+    static BotStrategy replay(List<String> trace) {
+        Iterator<String> guesses = trace.iterator();
+        return (song, player, rng) -> guesses.hasNext() ? guesses.next() : null;
+    }
+}
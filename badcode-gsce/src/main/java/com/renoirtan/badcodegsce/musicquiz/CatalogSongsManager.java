@@ -0,0 +1,128 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import java.util.Random;
+
+/**
+ * A {@link SongsManager} that draws songs from a {@link MappedSongCatalog}.
+ * Instead of a list of songs, it only keeps the indices of the songs which
+ * have not been drawn yet, and a {@link Song} is read from the catalog when
+ * it is drawn. Drawing always uses swap removal, so each draw is O(1).
+ * 
+ * Since the catalog is read-only, songs cannot be added to this manager.
+ * Songs are not kept in memory, so they are never added to the guess index
+ * either.
+ */
+public class CatalogSongsManager extends SongsManager {
+    protected MappedSongCatalog catalog;
+
+    /**
+     * The indices of the songs in the catalog that are left.
+     */
+    protected int[] remaining;
+    protected int remainingCount;
+
+    /**
+     * Create a manager over every song in a catalog.
+     * 
+     * @param catalog The catalog.
+     * @param rng The random number generator.
+     */
+    public CatalogSongsManager(MappedSongCatalog catalog, Random rng) {
+        super(rng);
+        this.catalog = catalog;
+        this.remainingCount = catalog.countSongs();
+        this.remaining = new int[this.remainingCount];
+        for (int index = 0; index < this.remainingCount; index++) {
+            this.remaining[index] = index;
+        }
+        this.swapRemove = true;
+    }
+
+    /**
+     * Create a manager over every song in a catalog without a random number
+     * generator.
+     * 
+     * @param catalog The catalog.
+     */
+    public CatalogSongsManager(MappedSongCatalog catalog) {
+        this(catalog, null);
+    }
+
+    @Override
+    protected SongsManager reset() {
+        super.reset();
+        this.remaining = new int[0];
+        this.remainingCount = 0;
+        return this;
+    }
+
+    /**
+     * Songs in a catalog are always drawn with swap removal, so this setting
+     * is ignored.
+     */
+    @Override
+    public SongsManager setSwapRemove(boolean swapRemove) {
+        return this;
+    }
+
+    /**
+     * Songs in a catalog are always drawn uniformly, so weights are never
+     * used.
+     */
+    @Override
+    public SongsManager enableWeights() {
+        return this;
+    }
+
+    /**
+     * Songs in a catalog are always drawn uniformly, so the weight is
+     * ignored and {@link #getWeight(int)} stays 1.
+     * 
+     * @throws IndexOutOfBoundsException If there is no song at the index.
+     */
+    @Override
+    public SongsManager setWeight(int index, double weight) {
+        if (index < 0 || index >= this.countSongs()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return this;
+    }
+
+    /**
+     * Songs cannot be added to a catalog.
+     * 
+     * @return false
+     */
+    @Override
+    public boolean addSong(Song song) {
+        return false;
+    }
+
+    @Override
+    public int countSongs() {
+        return this.remainingCount;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.remainingCount == 0;
+    }
+
+    @Override
+    public Song getSong(int index) {
+        if (index < 0 || index >= this.remainingCount) {
+            return null;
+        }
+        return this.catalog.getSong(this.remaining[index]);
+    }
+
+    @Override
+    public Song popSong(int index) {
+        if (index < 0 || index >= this.remainingCount) {
+            return null;
+        }
+        int catalogIndex = this.remaining[index];
+        this.remaining[index] = this.remaining[--this.remainingCount];
+        return this.catalog.getSong(catalogIndex);
+    }
+}
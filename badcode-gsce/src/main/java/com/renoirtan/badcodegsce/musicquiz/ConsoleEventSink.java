@@ -0,0 +1,80 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import java.io.PrintStream;
+
+/**
+ * Prints events to a stream as they are published, in the same words the
+ * game has always used. The stream is only flushed when the game is about
+ * to wait for a guess, so the prompt is visible before the player answers.
+ */
+public class ConsoleEventSink implements GameEventSink {
+    /**
+     * Write the text of an event.
+     * 
+     * @param event The event.
+     * @param text Where the text is appended.
+     */
+    public static void format(GameEvent event, StringBuilder text) {
+        switch (event.getType()) {
+            case SONG_PROMPTED:
+                text.append("Player: ").append(event.getUsername())
+                    .append("\nGuess the name of the song:\n")
+                    .append(event.getPrompt())
+                    .append("\n\n");
+                break;
+            case GUESS_REQUESTED:
+                text.append("Chances left: ").append(event.getChancesLeft())
+                    .append("\nGuess> ");
+                break;
+            case GUESS_MISSING:
+                text.append("\nNo guess was given.\n");
+                break;
+            case GUESS_CORRECT:
+                text.append("You guessed correctly!\n");
+                break;
+            case GUESS_WRONG:
+                text.append("Your guess was wrong.\n");
+                break;
+            case PLAYER_SURVIVED:
+                text.append("...\n");
+                break;
+            case PLAYER_ELIMINATED:
+                text.append(event.getUsername()).append(" messed up at ")
+                    .append(event.getSong().toEnglish())
+                    .append(" and has been eliminated.\n");
+                break;
+        }
+    }
+
+    protected PrintStream out;
+    protected StringBuilder text;
+
+    /**
+     * Create a sink printing to a stream.
+     * 
+     * @param out The stream.
+     */
+    public ConsoleEventSink(PrintStream out) {
+        this.out = out;
+        this.text = new StringBuilder();
+    }
+
+    public PrintStream getOut() {
+        return this.out;
+    }
+
+    @Override
+    public void publish(GameEvent event) {
+        this.text.setLength(0);
+        ConsoleEventSink.format(event, this.text);
+        this.out.print(this.text);
+        if (event.getType() == GameEvent.Type.GUESS_REQUESTED) {
+            this.out.flush();
+        }
+    }
+
+    @Override
+    public void flush() {
+        this.out.flush();
+    }
+}
@@ -1,6 +1,9 @@
 package com.renoirtan.badcodegsce.musicquiz;
 
+import java.io.PrintStream;
 import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A game of `musicquiz`.
@@ -27,9 +30,42 @@ public class Game {
     protected SongsManager songsManager;
 
     /**
-     * A value telling the game whether it has ended.
+     * A value telling the game whether it has ended. This can be set from
+     * another thread by {@link #stop()}.
      */
-    protected boolean gameOver;
+    protected volatile boolean gameOver;
+
+    /**
+     * Where this game sends its events, or null if it runs headless.
+     */
+    protected GameEventSink events;
+
+    /**
+     * How many turns have been played.
+     */
+    protected long rounds;
+
+    /**
+     * Where this game reads guesses from, or null to read them from the
+     * console.
+     */
+    protected GuessSource guesses;
+
+    /**
+     * How long to wait for each guess in milliseconds, or 0 to wait forever.
+     */
+    protected long guessTimeout;
+
+    /**
+     * How guesses are compared with the names of songs in this game.
+     */
+    protected GuessMatcher guessMatcher;
+
+    /**
+     * Where the scores of eliminated players are saved, or null to not save
+     * them.
+     */
+    protected ScoreStore scoreStore;
 
     /**
      * A constructor for a new game.
@@ -39,6 +75,27 @@ public class Game {
         this.gameId = this.rng.nextInt();
         this.playersManager = new PlayersManager();
         this.songsManager = new SongsManager(this.rng);
+        this.events = new ConsoleEventSink(System.out);
+        this.guessMatcher = GuessMatcher.EXACT;
+    }
+
+    /**
+     * A constructor for a new game whose random numbers are derived from a
+     * master seed and the ID of the game. Games with the same master seed
+     * and ID always draw the same songs, and since each game has its own
+     * {@link GameRandom}, many games can run in parallel without sharing a
+     * random number generator.
+     * 
+     * @param masterSeed The master seed shared by every game.
+     * @param gameId The ID of this game.
+     */
+    public Game(long masterSeed, int gameId) {
+        this.rng = GameRandom.forGame(masterSeed, gameId);
+        this.gameId = gameId;
+        this.playersManager = new PlayersManager();
+        this.songsManager = new SongsManager(this.rng);
+        this.events = new ConsoleEventSink(System.out);
+        this.guessMatcher = GuessMatcher.EXACT;
     }
 
     /**
@@ -70,6 +127,140 @@ public class Game {
         return this.songsManager;
     }
 
+    /**
+     * Draw the songs in this game from a memory mapped catalog instead. Any
+     * songs already added to the game are discarded.
+     * 
+     * @param catalog The catalog to draw songs from.
+     * @return This game.
+     */
+    public Game useCatalog(MappedSongCatalog catalog) {
+        this.songsManager = new CatalogSongsManager(catalog, this.rng);
+        return this;
+    }
+
+    /**
+     * Save the score of each player once they are eliminated or the game
+     * ends. Saving never makes the game wait, see {@link ScoreStore}.
+     * 
+     * @param scoreStore The store, or null to stop saving scores.
+     * @return This game.
+     */
+    public Game setScoreStore(ScoreStore scoreStore) {
+        this.scoreStore = scoreStore;
+        return this;
+    }
+
+    /**
+     * Get where the scores of players are saved.
+     * 
+     * @return The store, or null if scores are not saved.
+     */
+    public ScoreStore getScoreStore() {
+        return this.scoreStore;
+    }
+
+    /**
+     * Give this game its own input and output instead of the console, so
+     * that many games can run in the same program.
+     * 
+     * @param out Where the game prints to.
+     * @param input Where the game reads guesses from.
+     * @return This game.
+     */
+    public Game setIO(PrintStream out, Scanner input) {
+        return this.setIO(out, new ScannerGuessSource(input));
+    }
+
+    /**
+     * Give this game its own output and source of guesses instead of the
+     * console, so that many games can run in the same program. With no
+     * output and a {@link BotGuessSource}, the game runs headless.
+     * 
+     * @param out Where the game prints to, or null to print nothing.
+     * @param guesses Where the game reads guesses from.
+     * @return This game.
+     */
+    public Game setIO(PrintStream out, GuessSource guesses) {
+        this.events = out == null ? null : new ConsoleEventSink(out);
+        this.guesses = guesses;
+        return this;
+    }
+
+    /**
+     * Send the events of this game somewhere other than its output stream,
+     * such as an {@link AsyncEventSink} shared by many games.
+     * 
+     * @param events Where the game sends its events, or null to run
+     * headless.
+     * @return This game.
+     */
+    public Game setEventSink(GameEventSink events) {
+        this.events = events;
+        return this;
+    }
+
+    /**
+     * Set how guesses are compared with the names of songs in this game. By
+     * default, a guess has to be exactly the same as the name. Other games
+     * are not affected.
+     * 
+     * @param matcher The matcher.
+     * @return This game.
+     */
+    public Game setGuessMatcher(GuessMatcher matcher) {
+        this.guessMatcher = matcher;
+        return this;
+    }
+
+    /**
+     * Get how guesses are compared with the names of songs in this game.
+     * 
+     * @return The matcher.
+     */
+    public GuessMatcher getGuessMatcher() {
+        return this.guessMatcher;
+    }
+
+    /**
+     * Set how long each player has to make a guess. A guess which does not
+     * arrive in time counts as wrong.
+     * 
+     * @param timeout How long to wait, or 0 to wait forever.
+     * @param unit The unit of the timeout.
+     * @return This game.
+     */
+    public Game setGuessTimeout(long timeout, TimeUnit unit) {
+        this.guessTimeout = Math.max(0, unit.toMillis(timeout));
+        return this;
+    }
+
+    /**
+     * Get where this game sends its events.
+     * 
+     * @return The event sink, or null if the game runs headless.
+     */
+    public GameEventSink getEventSink() {
+        return this.events;
+    }
+
+    /**
+     * Count the turns played so far, whether the guesses were right or not.
+     * 
+     * @return The number of turns played.
+     */
+    public long getRoundsPlayed() {
+        return this.rounds;
+    }
+
+    /**
+     * End the game after the current turn. This can be called from any
+     * thread.
+     */
+    public void stop() {
+        this.gameOver = true;
+    }
+
     /**
      * Check if the game is over.
      * 
@@ -82,12 +273,24 @@ public class Game {
     }
 
     /**
-     * Play the game using one song (and therefore one player).
+     * Play the game using one song (and therefore one player). If the game
+     * has been stopped (see {@link #stop()}) or its thread interrupted,
+     * nothing is played and no player is touched.
      * 
      * @return If the player gets the song correct, return true. Otherwise, false.
      * @throws Exception If something wrong happens, read the error messages.
+     * @throws InterruptedException If the game's thread was interrupted,
+     * in which case the player's counters are unchanged.
      */
-    public boolean playOnce() throws Exception {
+    public boolean playOnce() throws Exception, InterruptedException {
+        if (this.gameOver) {
+            return false;
+        } else if (Thread.interrupted()) {
+            // Throw rather than return, or play() would keep calling us.
+            throw new InterruptedException("The game was interrupted.");
+        }
+        GameMetrics metrics = GameMetrics.current();
+        long start = metrics == null ? 0 : System.nanoTime();
         Player player = this.playersManager.next();
         if (player == null) {
             return true;
@@ -106,22 +309,42 @@ public class Game {
         ));
         System.out.println(String.format(
             "    [Game.playOnce] players: %s",
-            this.getPlayersManager().players
+            this.getPlayersManager().getPlayers()
         ));
         System.out.println(String.format(
             "    [Game.playOnce] songs: %s",
             this.getSongsManager().songs
         )); */
-        boolean wrong = song.quizPlayer(player);
+        this.rounds++;
+        boolean wrong = song.quizPlayer(
+            this.events,
+            this.guesses == null ? GuessSource.console() : this.guesses,
+            player,
+            this.guessMatcher,
+            this.guessTimeout,
+            TimeUnit.MILLISECONDS
+        );
         if (wrong) {
-            System.out.println(String.format(
-                "%s messed up at %s and has been eliminated.",
-                player.getUsername(),
-                song.toEnglish()
-            ));
+            if (this.events != null) {
+                this.events.publish(new GameEvent(
+                    GameEvent.Type.PLAYER_ELIMINATED,
+                    player,
+                    song
+                ));
+            }
             this.getPlayersManager().removeLastPlayer();
-        } else {
-            System.out.println("...");
+            if (this.scoreStore != null) {
+                this.scoreStore.offer(player.export());
+            }
+        } else if (this.events != null) {
+            this.events.publish(new GameEvent(
+                GameEvent.Type.PLAYER_SURVIVED,
+                player,
+                song
+            ));
+        }
+        if (metrics != null) {
+            metrics.recordRound(System.nanoTime() - start, wrong);
         }
         /* System.out.println(String.format(
             "    [Game.playOnce] is_game_over? %b",
@@ -146,12 +369,29 @@ public class Game {
      * @throws Exception If something went wrong.
      */
     public int play() throws Exception {
-        int songs = 0;
-        while (!this.isGameOver()) {
-            if (this.playOnce()) {
-                songs++;
+        GameMetrics metrics = GameMetrics.current();
+        if (metrics != null) {
+            metrics.recordGameStarted();
+        }
+        try {
+            int songs = 0;
+            while (!this.isGameOver()) {
+                if (this.playOnce()) {
+                    songs++;
+                }
+            }
+            if (this.scoreStore != null) {
+                this.getPlayersManager().forEachPlayer(
+                    player -> this.scoreStore.offer(player.export())
+                );
+            }
+            return songs;
+        } finally {
+            // Also when the game fails or is stopped, so that started minus
+            // finished is the number of games still running.
+            if (metrics != null) {
+                metrics.recordGameFinished();
             }
         }
-        return songs;
     }
 }
@@ -0,0 +1,161 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+/**
+ * Something which happened in a game, such as a guess or an elimination.
+ * Events hold the values they describe rather than a message, so a
+ * {@link GameEventSink} can decide how (and on which thread) to turn them
+ * into text. Events never change after they are created.
+ */
+public class GameEvent {
+    /**
+     * The kinds of event.
+     */
+    public enum Type {
+        /**
+         * A player is asked to guess a song for the first time.
+         */
+        SONG_PROMPTED,
+
+        /**
+         * The game is waiting for a player's guess.
+         */
+        GUESS_REQUESTED,
+
+        /**
+         * No guess arrived in time, which counts as wrong.
+         */
+        GUESS_MISSING,
+        GUESS_CORRECT,
+        GUESS_WRONG,
+
+        /**
+         * A player guessed their song and stays in the game.
+         */
+        PLAYER_SURVIVED,
+
+        /**
+         * A player ran out of chances and left the game.
+         */
+        PLAYER_ELIMINATED
+    }
+
+    protected Type type;
+    protected String username;
+    protected Song song;
+    protected int chancesLeft;
+    protected String guess;
+    protected String prompt;
+
+    /**
+     * Create an event.
+     * 
+     * @param type The kind of event.
+     * @param player The player the event is about.
+     * @param song The song the player is guessing.
+     * @param guess The guess of the player, or null if there is none.
+     */
+    public GameEvent(Type type, Player player, Song song, String guess) {
+        this(type, player, song, guess, null);
+    }
+
+    /**
+     * Create an event.
+     * 
+     * @param type The kind of event.
+     * @param player The player the event is about.
+     * @param song The song the player is guessing.
+     * @param guess The guess of the player, or null if there is none.
+     * @param prompt The hint shown for the song, or null if there is none.
+     */
+    protected GameEvent(
+        Type type,
+        Player player,
+        Song song,
+        String guess,
+        String prompt
+    ) {
+        this.type = type;
+        // Copied now since the player keeps changing after the event.
+        this.username = player.getUsername();
+        this.chancesLeft = player.chancesLeft();
+        this.song = song;
+        this.guess = guess;
+        this.prompt = prompt;
+    }
+
+    /**
+     * Create the event of a player being asked to guess a song. The hint of
+     * the song is built here, on the game's thread, so sinks never build it
+     * themselves.
+     * 
+     * @param player The player.
+     * @param song The song.
+     * @return The event.
+     * @throws Exception If the hint could not be built.
+     */
+    public static GameEvent prompted(Player player, Song song) throws Exception {
+        return new GameEvent(
+            Type.SONG_PROMPTED,
+            player,
+            song,
+            null,
+            song.getPrompt()
+        );
+    }
+
+    /**
+     * Create an event with no guess.
+     * 
+     * @param type The kind of event.
+     * @param player The player the event is about.
+     * @param song The song the player is guessing.
+     */
+    public GameEvent(Type type, Player player, Song song) {
+        this(type, player, song, null);
+    }
+
+    public Type getType() {
+        return this.type;
+    }
+
+    public String getUsername() {
+        return this.username;
+    }
+
+    public Song getSong() {
+        return this.song;
+    }
+
+    /**
+     * Get how many chances the player had left when the event happened.
+     * 
+     * @return The number of chances left.
+     */
+    public int getChancesLeft() {
+        return this.chancesLeft;
+    }
+
+    public String getGuess() {
+        return this.guess;
+    }
+
+    /**
+     * Get the hint shown for the song, see {@link Song#getPrompt()}.
+     * 
+     * @return The hint, or null if this is not a
+     * {@link Type#SONG_PROMPTED} event.
+     */
+    public String getPrompt() {
+        return this.prompt;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "<GameEvent type=\"%s\" username=\"%s\" chancesLeft=\"%d\"/>",
+            this.type,
+            this.username,
+            this.chancesLeft
+        );
+    }
+}
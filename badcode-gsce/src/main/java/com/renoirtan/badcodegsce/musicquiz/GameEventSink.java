@@ -0,0 +1,23 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+/**
+ * Where a game sends its {@link GameEvent}s, such as the console
+ * ({@link ConsoleEventSink}) or a buffer written out by another thread
+ * ({@link AsyncEventSink}). A game with no sink runs headless and does not
+ * create events at all.
+ */
+public interface GameEventSink {
+    /**
+     * Handle an event. This is called from the game's thread, and the
+     * events of one game arrive in the order they happened.
+     * 
+     * @param event The event.
+     */
+    void publish(GameEvent event);
+
+    /**
+     * Make sure every event published so far has been written out.
+     */
+    default void flush() {
+    }
+}
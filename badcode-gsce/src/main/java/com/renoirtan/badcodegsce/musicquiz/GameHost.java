@@ -0,0 +1,297 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs many games at once in the same program. Each game's
+ * {@link Game#play()} loop runs on its own thread and reads and writes its
+ * own streams, see {@link Game#setIO(PrintStream, Scanner)}.
+ * 
+ * On Java 21 and later every game gets a virtual thread, so tens of
+ * thousands of games waiting for their players cost very little. On older
+ * versions a pool of ordinary threads is used instead.
+ * 
+ * Running games are kept in a registry by their ID until they finish.
+ */
+public class GameHost implements AutoCloseable {
+    /**
+     * A game running on the host.
+     */
+    public static class Session {
+        protected Game game;
+        protected Future<Integer> result;
+
+        protected Session(Game game) {
+            this.game = game;
+        }
+
+        public Game getGame() {
+            return this.game;
+        }
+
+        public int getGameId() {
+            return this.game.getGameId();
+        }
+
+        /**
+         * Check whether the game has finished.
+         * 
+         * @return true if the game has finished, failed or been cancelled.
+         */
+        public boolean isDone() {
+            return this.result.isDone();
+        }
+
+        /**
+         * Wait for the game to finish.
+         * 
+         * @return The number of songs guessed correctly, see
+         * {@link Game#play()}.
+         * @throws InterruptedException If interrupted while waiting.
+         * @throws ExecutionException If the game failed.
+         */
+        public int await() throws InterruptedException, ExecutionException {
+            return this.result.get();
+        }
+
+        /**
+         * End the game after the current turn and interrupt its thread.
+         */
+        public void stop() {
+            this.game.stop();
+            this.result.cancel(true);
+        }
+    }
+
+    /**
+     * Create an executor which starts a virtual thread for each task, or a
+     * pool of daemon threads if virtual threads are not available.
+     * 
+     * @return The executor.
+     */
+    protected static ExecutorService newExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "GameHost-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    protected ExecutorService executor;
+    protected ConcurrentHashMap<Integer, Session> sessions;
+    protected volatile boolean shutdown;
+
+    /**
+     * Create a host using virtual threads where available.
+     */
+    public GameHost() {
+        this(GameHost.newExecutor());
+    }
+
+    /**
+     * Create a host running games on an executor.
+     * 
+     * @param executor The executor, which should give each game its own
+     * thread since games block while waiting for guesses.
+     */
+    public GameHost(ExecutorService executor) {
+        this.executor = executor;
+        this.sessions = new ConcurrentHashMap<>();
+        this.shutdown = false;
+    }
+
+    /**
+     * Check whether games run on virtual threads.
+     * 
+     * @return true if each game gets a virtual thread.
+     */
+    public boolean isVirtual() {
+        try {
+            return (boolean) this.executor.submit(() ->
+                (boolean) Thread.class.getMethod("isVirtual")
+                    .invoke(Thread.currentThread())
+            ).get();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Start a game which reads guesses from a reader and prints to a stream.
+     * 
+     * @param game The game.
+     * @param input Where the game reads guesses from.
+     * @param output Where the game prints to.
+     * @return The session of the game.
+     * @throws IllegalStateException If a game with the same ID is running or
+     * the host has been shut down.
+     */
+    public Session host(Game game, Reader input, OutputStream output)
+    throws IllegalStateException {
+        game.setIO(
+            new PrintStream(output, true, StandardCharsets.UTF_8),
+            new Scanner(input)
+        );
+        return this.host(game);
+    }
+
+    /**
+     * Start a game which takes guesses from a source, such as a
+     * {@link QueueGuessSource} fed by a network connection.
+     * 
+     * @param game The game.
+     * @param guesses Where the game reads guesses from.
+     * @param output Where the game prints to.
+     * @return The session of the game.
+     * @throws IllegalStateException If a game with the same ID is running or
+     * the host has been shut down.
+     */
+    public Session host(Game game, GuessSource guesses, OutputStream output)
+    throws IllegalStateException {
+        game.setIO(new PrintStream(output, true, StandardCharsets.UTF_8), guesses);
+        return this.host(game);
+    }
+
+    /**
+     * Start a game which takes guesses from a source and sends its events to
+     * a sink, such as an {@link AsyncEventSink} shared by every game.
+     * 
+     * @param game The game.
+     * @param guesses Where the game reads guesses from.
+     * @param events Where the game sends its events.
+     * @return The session of the game.
+     * @throws IllegalStateException If a game with the same ID is running or
+     * the host has been shut down.
+     */
+    public Session host(Game game, GuessSource guesses, GameEventSink events)
+    throws IllegalStateException {
+        game.setIO((PrintStream) null, guesses).setEventSink(events);
+        return this.host(game);
+    }
+
+    /**
+     * Start a game using the streams it already has.
+     * 
+     * @param game The game.
+     * @return The session of the game.
+     * @throws IllegalStateException If a game with the same ID is running or
+     * the host has been shut down.
+     */
+    public Session host(Game game) throws IllegalStateException {
+        if (this.shutdown) {
+            throw new IllegalStateException("The host has been shut down.");
+        }
+        Session session = new Session(game);
+        // The result is set before the session can be found in the registry,
+        // so a session found there can always be awaited.
+        FutureTask<Integer> result = new FutureTask<>(() -> {
+            try {
+                return game.play();
+            } finally {
+                this.sessions.remove(game.getGameId(), session);
+            }
+        });
+        session.result = result;
+        if (this.sessions.putIfAbsent(game.getGameId(), session) != null) {
+            throw new IllegalStateException(String.format(
+                "Game %d is already running.",
+                game.getGameId()
+            ));
+        }
+        try {
+            this.executor.execute(result);
+        } catch (RejectedExecutionException e) {
+            this.sessions.remove(game.getGameId(), session);
+            throw new IllegalStateException("The host has been shut down.", e);
+        }
+        return session;
+    }
+
+    /**
+     * Find a running game.
+     * 
+     * @param gameId The ID of the game.
+     * @return The session of the game, or null if it is not running.
+     */
+    public Session getSession(int gameId) {
+        return this.sessions.get(gameId);
+    }
+
+    /**
+     * Count the games which are running.
+     * 
+     * @return The number of running games.
+     */
+    public int sessionCount() {
+        return this.sessions.size();
+    }
+
+    /**
+     * Stop accepting new games. Running games carry on until they end.
+     */
+    public void shutdown() {
+        this.shutdown = true;
+        this.executor.shutdown();
+    }
+
+    /**
+     * Stop accepting new games and stop every running game.
+     */
+    public void shutdownNow() {
+        this.shutdown();
+        for (Session session : this.sessions.values()) {
+            session.stop();
+        }
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Wait for every game to end after a shutdown.
+     * 
+     * @param timeout How long to wait.
+     * @param unit The unit of the timeout.
+     * @return true if every game ended, false if the timeout passed first.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit)
+    throws InterruptedException {
+        return this.executor.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Shut down, waiting for running games to end. If interrupted while
+     * waiting, every game is stopped.
+     */
+    @Override
+    public void close() {
+        this.shutdown();
+        try {
+            while (!this.awaitTermination(1, TimeUnit.SECONDS)) {
+                // Keep waiting for long games.
+            }
+        } catch (InterruptedException e) {
+            this.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
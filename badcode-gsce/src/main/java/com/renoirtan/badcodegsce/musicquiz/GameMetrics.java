@@ -0,0 +1,251 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counts what every game in the process is doing: rounds, guesses,
+ * eliminations and how long rounds and guesses take. Counters are
+ * {@link LongAdder}s, so games on many threads can record at once without
+ * fighting over a single value.
+ * 
+ * Metrics are off by default. Games look up {@link #current()} once per
+ * round and skip all recording (including reading the clock) when it is
+ * null, so disabled metrics cost a single volatile read. Once enabled, the
+ * metrics are registered as an MBean named {@link #OBJECT_NAME}.
+ */
+public class GameMetrics implements GameMetricsMXBean {
+    /**
+     * The name the metrics are registered under in JMX.
+     */
+    public static final String OBJECT_NAME =
+        "com.renoirtan.badcodegsce.musicquiz:type=GameMetrics";
+
+    private static volatile GameMetrics current;
+
+    /**
+     * Get the metrics games should record into.
+     * 
+     * @return The metrics, or null if metrics are disabled.
+     */
+    public static GameMetrics current() {
+        return GameMetrics.current;
+    }
+
+    /**
+     * Start recording metrics and register them with the platform MBean
+     * server. Does nothing if metrics are already enabled.
+     * 
+     * @return The metrics.
+     * @throws JMException If the MBean could not be registered.
+     */
+    public static synchronized GameMetrics enable() throws JMException {
+        if (GameMetrics.current == null) {
+            GameMetrics metrics = new GameMetrics();
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(metrics, name);
+            GameMetrics.current = metrics;
+        }
+        return GameMetrics.current;
+    }
+
+    /**
+     * Stop recording metrics and unregister them from the MBean server.
+     * 
+     * @throws JMException If the MBean could not be unregistered.
+     */
+    public static synchronized void disable() throws JMException {
+        if (GameMetrics.current != null) {
+            GameMetrics.current = null;
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        }
+    }
+
+    protected LongAdder gamesStarted;
+    protected LongAdder gamesFinished;
+    protected LongAdder rounds;
+    protected LongAdder correct;
+    protected LongAdder incorrect;
+    protected LongAdder missing;
+    protected LongAdder eliminations;
+    protected LatencyHistogram roundLatency;
+    protected LatencyHistogram guessLatency;
+
+    /**
+     * Create metrics with every counter at 0. Most code should use
+     * {@link #enable()} instead.
+     */
+    public GameMetrics() {
+        this.gamesStarted = new LongAdder();
+        this.gamesFinished = new LongAdder();
+        this.rounds = new LongAdder();
+        this.correct = new LongAdder();
+        this.incorrect = new LongAdder();
+        this.missing = new LongAdder();
+        this.eliminations = new LongAdder();
+        this.roundLatency = new LatencyHistogram();
+        this.guessLatency = new LatencyHistogram();
+    }
+
+    /**
+     * Record a game starting to play, see {@link Game#play()}.
+     */
+    public void recordGameStarted() {
+        this.gamesStarted.increment();
+    }
+
+    /**
+     * Record a game ending, whether it was played to the end, stopped or
+     * failed.
+     */
+    public void recordGameFinished() {
+        this.gamesFinished.increment();
+    }
+
+    /**
+     * Record a round played by {@link Game#playOnce()}.
+     * 
+     * @param nanos How long the round took.
+     * @param eliminated Whether the player was eliminated.
+     */
+    public void recordRound(long nanos, boolean eliminated) {
+        this.rounds.increment();
+        this.roundLatency.record(nanos);
+        if (eliminated) {
+            this.eliminations.increment();
+        }
+    }
+
+    /**
+     * Record a single guess.
+     * 
+     * @param nanos How long the player took to answer.
+     * @param given Whether a guess arrived at all.
+     * @param correct Whether the guess was correct.
+     */
+    public void recordGuess(long nanos, boolean given, boolean correct) {
+        this.guessLatency.record(nanos);
+        if (correct) {
+            this.correct.increment();
+        } else {
+            this.incorrect.increment();
+            if (!given) {
+                this.missing.increment();
+            }
+        }
+    }
+
+    // GameMetricsMXBean
+
+    @Override
+    public long getGamesStarted() {
+        return this.gamesStarted.sum();
+    }
+
+    @Override
+    public long getGamesFinished() {
+        return this.gamesFinished.sum();
+    }
+
+    @Override
+    public long getRoundsPlayed() {
+        return this.rounds.sum();
+    }
+
+    @Override
+    public long getGuesses() {
+        return this.getCorrectGuesses() + this.getIncorrectGuesses();
+    }
+
+    @Override
+    public long getCorrectGuesses() {
+        return this.correct.sum();
+    }
+
+    @Override
+    public long getIncorrectGuesses() {
+        return this.incorrect.sum();
+    }
+
+    @Override
+    public long getMissingGuesses() {
+        return this.missing.sum();
+    }
+
+    @Override
+    public double getCorrectRatio() {
+        long correct = this.getCorrectGuesses();
+        long guesses = correct + this.getIncorrectGuesses();
+        return guesses == 0 ? 0 : (double) correct / guesses;
+    }
+
+    @Override
+    public long getEliminations() {
+        return this.eliminations.sum();
+    }
+
+    @Override
+    public double getRoundLatencyMean() {
+        return this.roundLatency.mean();
+    }
+
+    @Override
+    public long getRoundLatencyP50() {
+        return this.roundLatency.percentile(0.5);
+    }
+
+    @Override
+    public long getRoundLatencyP99() {
+        return this.roundLatency.percentile(0.99);
+    }
+
+    @Override
+    public long[] getRoundLatencyHistogram() {
+        return this.roundLatency.snapshot();
+    }
+
+    @Override
+    public double getGuessLatencyMean() {
+        return this.guessLatency.mean();
+    }
+
+    @Override
+    public long getGuessLatencyP50() {
+        return this.guessLatency.percentile(0.5);
+    }
+
+    @Override
+    public long getGuessLatencyP99() {
+        return this.guessLatency.percentile(0.99);
+    }
+
+    @Override
+    public long[] getGuessLatencyHistogram() {
+        return this.guessLatency.snapshot();
+    }
+
+    @Override
+    public void reset() {
+        this.gamesStarted.reset();
+        this.gamesFinished.reset();
+        this.rounds.reset();
+        this.correct.reset();
+        this.incorrect.reset();
+        this.missing.reset();
+        this.eliminations.reset();
+        this.roundLatency.reset();
+        this.guessLatency.reset();
+    }
+}
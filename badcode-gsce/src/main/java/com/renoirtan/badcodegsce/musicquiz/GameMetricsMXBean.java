@@ -0,0 +1,139 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+/**
+ * The management interface of {@link GameMetrics}, as seen in JMX clients
+ * such as JConsole. Every value is the total across every game in the
+ * process. Latencies are in nanoseconds.
+ */
+public interface GameMetricsMXBean {
+    /**
+     * Get the number of games which have started playing.
+     * 
+     * @return The number of games started.
+     */
+    long getGamesStarted();
+
+    /**
+     * Get the number of games which have ended, including games which were
+     * stopped or failed.
+     * 
+     * @return The number of games finished.
+     */
+    long getGamesFinished();
+
+    /**
+     * Get the number of rounds played, see {@link Game#playOnce()}.
+     * 
+     * @return The number of rounds.
+     */
+    long getRoundsPlayed();
+
+    /**
+     * Get the number of guesses, correct or not.
+     * 
+     * @return The number of guesses.
+     */
+    long getGuesses();
+
+    /**
+     * Get the number of correct guesses.
+     * 
+     * @return The number of correct guesses.
+     */
+    long getCorrectGuesses();
+
+    /**
+     * Get the number of wrong guesses, including missing guesses.
+     * 
+     * @return The number of wrong guesses.
+     */
+    long getIncorrectGuesses();
+
+    /**
+     * Get the number of guesses which never arrived, because of a timeout
+     * or the input ending. These also count as incorrect.
+     * 
+     * @return The number of missing guesses.
+     */
+    long getMissingGuesses();
+
+    /**
+     * Get the fraction of guesses which were correct.
+     * 
+     * @return The fraction from 0 to 1, or 0 if there were no guesses.
+     */
+    double getCorrectRatio();
+
+    /**
+     * Get the number of players eliminated.
+     * 
+     * @return The number of eliminations.
+     */
+    long getEliminations();
+
+    /**
+     * Get the mean time taken by a round.
+     * 
+     * @return The mean in nanoseconds, or 0 if no round was played.
+     */
+    double getRoundLatencyMean();
+
+    /**
+     * Get the median time taken by a round, rounded up to a power of 2.
+     * 
+     * @return The median in nanoseconds.
+     */
+    long getRoundLatencyP50();
+
+    /**
+     * Get the time which 99% of rounds took less than, rounded up to a
+     * power of 2.
+     * 
+     * @return The 99th percentile in nanoseconds.
+     */
+    long getRoundLatencyP99();
+
+    /**
+     * Get the round latency histogram, where index {@code i} counts rounds
+     * shorter than {@code 2^i} nanoseconds.
+     * 
+     * @return The count of each bucket.
+     */
+    long[] getRoundLatencyHistogram();
+
+    /**
+     * Get the mean time players took to answer.
+     * 
+     * @return The mean in nanoseconds, or 0 if there were no guesses.
+     */
+    double getGuessLatencyMean();
+
+    /**
+     * Get the median time players took to answer, rounded up to a power
+     * of 2.
+     * 
+     * @return The median in nanoseconds.
+     */
+    long getGuessLatencyP50();
+
+    /**
+     * Get the time which 99% of answers took less than, rounded up to a
+     * power of 2.
+     * 
+     * @return The 99th percentile in nanoseconds.
+     */
+    long getGuessLatencyP99();
+
+    /**
+     * Get the guess response time histogram, where index {@code i} counts
+     * guesses which took less than {@code 2^i} nanoseconds.
+     * 
+     * @return The count of each bucket.
+     */
+    long[] getGuessLatencyHistogram();
+
+    /**
+     * Set every counter back to 0.
+     */
+    void reset();
+}
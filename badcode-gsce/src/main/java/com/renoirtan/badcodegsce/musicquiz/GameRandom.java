@@ -0,0 +1,140 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * A random number generator for a single game. It can be used anywhere a
+ * {@link Random} is expected (such as {@link SongsManager}), but the numbers
+ * come from a {@link SplittableRandom}, which does not synchronise or use
+ * atomic operations. This means it must not be shared between threads;
+ * instead, each game gets its own generator from
+ * {@link #forGame(long, int)} or {@link #split()}.
+ * 
+ * Given the same master seed and game ID, a game always gets the same
+ * sequence of numbers, no matter how many other games were created or in
+ * which order.
+ */
+public class GameRandom extends Random {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The golden ratio as a 64-bit fraction, used to spread out game IDs.
+     */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Mix the bits of a number so that similar inputs give very different
+     * outputs (the finaliser of MurmurHash3).
+     * 
+     * @param value The number.
+     * @return The mixed number.
+     */
+    protected static long mix64(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+
+    /**
+     * Derive the seed of a game from a master seed and the game's ID.
+     * 
+     * @param masterSeed The master seed shared by every game.
+     * @param gameId The ID of the game.
+     * @return The seed of the game.
+     */
+    public static long seedFor(long masterSeed, int gameId) {
+        return GameRandom.mix64(
+            masterSeed ^ GameRandom.mix64((gameId + 1) * GOLDEN_GAMMA)
+        );
+    }
+
+    /**
+     * Create the random number generator of a game.
+     * 
+     * @param masterSeed The master seed shared by every game.
+     * @param gameId The ID of the game.
+     * @return The random number generator of the game.
+     */
+    public static GameRandom forGame(long masterSeed, int gameId) {
+        return new GameRandom(GameRandom.seedFor(masterSeed, gameId));
+    }
+
+    protected SplittableRandom source;
+
+    /**
+     * Create a random number generator from a seed.
+     * 
+     * @param seed The seed.
+     */
+    public GameRandom(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    /**
+     * Create a random number generator using an existing
+     * {@link SplittableRandom}.
+     * 
+     * @param source Where the random numbers come from.
+     */
+    public GameRandom(SplittableRandom source) {
+        super(0L);
+        this.source = source;
+    }
+
+    /**
+     * Create a new random number generator whose numbers are independent of
+     * this one's. This one is advanced in the process.
+     * 
+     * @return The new random number generator.
+     */
+    public GameRandom split() {
+        return new GameRandom(this.source.split());
+    }
+
+    /**
+     * Reseed this random number generator.
+     * 
+     * @param seed The new seed.
+     */
+    @Override
+    public void setSeed(long seed) {
+        // Random's constructor calls this before source is set.
+        if (this.source != null) {
+            this.source = new SplittableRandom(seed);
+        }
+    }
+
+    @Override
+    protected int next(int bits) {
+        return this.source.nextInt() >>> (32 - bits);
+    }
+
+    @Override
+    public int nextInt() {
+        return this.source.nextInt();
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        return this.source.nextInt(bound);
+    }
+
+    @Override
+    public long nextLong() {
+        return this.source.nextLong();
+    }
+
+    @Override
+    public double nextDouble() {
+        return this.source.nextDouble();
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return this.source.nextBoolean();
+    }
+}
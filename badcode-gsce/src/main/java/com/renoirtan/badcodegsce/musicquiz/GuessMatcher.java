@@ -0,0 +1,277 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+/**
+ * Decides whether a guess matches the name of a {@link Song}. Depending on
+ * its {@link Policy}, a guess can be compared exactly, after normalising
+ * both sides (ignoring case and anything that is not a letter or a digit),
+ * or after normalising with up to a number of typos allowed.
+ * 
+ * The normalised name of each song is only computed once (see
+ * {@link Song#getNormalizedName()}). Guesses are normalised while they are
+ * being compared, so checking a guess does not allocate anything.
+ * {@link GuessMatcher} objects are immutable and can be shared between
+ * threads.
+ */
+public class GuessMatcher {
+    /**
+     * How a guess is compared with the name of a song.
+     */
+    public enum Policy {
+        /**
+         * The guess must be exactly the same as the name.
+         */
+        EXACT,
+
+        /**
+         * The guess must be the same as the name after normalising both.
+         */
+        NORMALIZED,
+
+        /**
+         * The normalised guess must be within a maximum edit distance of the
+         * normalised name.
+         */
+        FUZZY
+    }
+
+    /**
+     * A matcher which only accepts guesses that are exactly the same as the
+     * name of the song.
+     */
+    public static final GuessMatcher EXACT =
+        new GuessMatcher(Policy.EXACT, 0);
+
+    /**
+     * A matcher which ignores case, punctuation and whitespace.
+     */
+    public static final GuessMatcher NORMALIZED =
+        new GuessMatcher(Policy.NORMALIZED, 0);
+
+    /**
+     * Two rows of the edit distance table for each thread, reused between
+     * guesses.
+     */
+    private static final ThreadLocal<int[][]> rows =
+        ThreadLocal.withInitial(() -> new int[2][64]);
+
+    /**
+     * Create a matcher which allows a number of typos.
+     * 
+     * @param maxDistance The maximum number of single letter insertions,
+     * deletions or substitutions allowed.
+     * @return The matcher.
+     */
+    public static GuessMatcher fuzzy(int maxDistance) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException(
+                "The maximum edit distance cannot be negative."
+            );
+        }
+        return new GuessMatcher(Policy.FUZZY, maxDistance);
+    }
+
+    /**
+     * Check whether a character is kept when normalising.
+     * 
+     * @param letter The character.
+     * @return true if the character is a letter or a digit.
+     */
+    protected static boolean isKept(char letter) {
+        return Character.isLetterOrDigit(letter);
+    }
+
+    /**
+     * Normalise some text by removing everything that is not a letter or a
+     * digit and converting it to lower case.
+     * 
+     * @param text The text to normalise.
+     * @return The normalised text.
+     */
+    public static String normalize(String text) {
+        StringBuilder builder = new StringBuilder(text.length());
+        for (int index = 0; index < text.length(); index++) {
+            char letter = text.charAt(index);
+            if (GuessMatcher.isKept(letter)) {
+                builder.append(Character.toLowerCase(letter));
+            }
+        }
+        return builder.toString();
+    }
+
+    protected Policy policy;
+    protected int maxDistance;
+
+    /**
+     * Create a matcher.
+     * 
+     * @param policy How guesses are compared.
+     * @param maxDistance The maximum edit distance for {@link Policy#FUZZY}.
+     */
+    protected GuessMatcher(Policy policy, int maxDistance) {
+        this.policy = policy;
+        this.maxDistance = maxDistance;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "<GuessMatcher policy=\"%s\" maxDistance=\"%d\"/>",
+            this.policy,
+            this.maxDistance
+        );
+    }
+
+    /**
+     * Get how guesses are compared.
+     * 
+     * @return The policy of this matcher.
+     */
+    public Policy getPolicy() {
+        return this.policy;
+    }
+
+    /**
+     * Get the maximum edit distance allowed by this matcher.
+     * 
+     * @return The maximum edit distance.
+     */
+    public int getMaxDistance() {
+        return this.maxDistance;
+    }
+
+    /**
+     * Check whether a guess matches the name of a song.
+     * 
+     * @param song The song.
+     * @param guess The guess.
+     * @return Whether the guess matches.
+     */
+    public boolean matches(Song song, String guess) {
+        if (guess == null || song.getName() == null) {
+            return guess == song.getName();
+        }
+        switch (this.policy) {
+            case EXACT:
+                return song.getName().equals(guess);
+            case NORMALIZED:
+                return GuessMatcher.matchesNormalized(
+                    song.getNormalizedName(),
+                    guess
+                );
+            default:
+                return GuessMatcher.withinDistance(
+                    song.getNormalizedName(),
+                    guess,
+                    this.maxDistance
+                );
+        }
+    }
+
+    /**
+     * Check whether a guess is the same as a normalised name once the guess
+     * is normalised.
+     * 
+     * @param key The normalised name.
+     * @param guess The guess.
+     * @return Whether the guess matches.
+     */
+    protected static boolean matchesNormalized(String key, String guess) {
+        int position = 0;
+        for (int index = 0; index < guess.length(); index++) {
+            char letter = guess.charAt(index);
+            if (!GuessMatcher.isKept(letter)) {
+                continue;
+            } else if (
+                position >= key.length() ||
+                key.charAt(position) != Character.toLowerCase(letter)
+            ) {
+                return false;
+            }
+            position++;
+        }
+        return position == key.length();
+    }
+
+    /**
+     * Count how long a guess would be after normalising it.
+     * 
+     * @param guess The guess.
+     * @return The length of the normalised guess.
+     */
+    protected static int normalizedLength(String guess) {
+        int length = 0;
+        for (int index = 0; index < guess.length(); index++) {
+            if (GuessMatcher.isKept(guess.charAt(index))) {
+                length++;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Check whether the edit distance between a normalised name and a guess
+     * (once normalised) is at most a maximum. Only the cells of the edit
+     * distance table within the maximum of the diagonal are computed, and
+     * the check stops as soon as every cell in a row is over the maximum.
+     * 
+     * @param key The normalised name.
+     * @param guess The guess.
+     * @param maxDistance The maximum edit distance.
+     * @return Whether the guess is close enough.
+     */
+    protected static boolean withinDistance(
+        String key,
+        String guess,
+        int maxDistance
+    ) {
+        int keyLength = key.length();
+        if (Math.abs(GuessMatcher.normalizedLength(guess) - keyLength) > maxDistance) {
+            return false;
+        }
+        int over = maxDistance + 1;
+        int[][] table = GuessMatcher.rows.get();
+        if (table[0].length < keyLength + 2) {
+            table[0] = new int[keyLength + 2];
+            table[1] = new int[keyLength + 2];
+        }
+        int[] previous = table[0];
+        int[] current = table[1];
+        for (int column = 0; column <= Math.min(keyLength, over); column++) {
+            previous[column] = Math.min(column, over);
+        }
+
+        int row = 0;
+        for (int index = 0; index < guess.length(); index++) {
+            char letter = guess.charAt(index);
+            if (!GuessMatcher.isKept(letter)) {
+                continue;
+            }
+            letter = Character.toLowerCase(letter);
+            row++;
+            int from = Math.max(1, row - maxDistance);
+            int to = Math.min(keyLength, row + maxDistance);
+            current[from - 1] = from == 1 ? Math.min(row, over) : over;
+            int rowMinimum = current[from - 1];
+            for (int column = from; column <= to; column++) {
+                int cost = key.charAt(column - 1) == letter ? 0 : 1;
+                int distance = Math.min(
+                    previous[column - 1] + cost,
+                    Math.min(previous[column], current[column - 1]) + 1
+                );
+                distance = Math.min(distance, over);
+                current[column] = distance;
+                rowMinimum = Math.min(rowMinimum, distance);
+            }
+            if (to < keyLength) {
+                current[to + 1] = over;
+            }
+            if (rowMinimum > maxDistance) {
+                return false;
+            }
+            int[] temp = previous;
+            previous = current;
+            current = temp;
+        }
+        return previous[keyLength] <= maxDistance;
+    }
+}
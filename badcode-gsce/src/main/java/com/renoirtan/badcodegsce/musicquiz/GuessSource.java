@@ -0,0 +1,34 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Where the guesses of players come from, such as the console, a network
+ * connection or a script. Waiting for a guess parks the thread instead of
+ * spinning, so a game waiting for its players uses no CPU.
+ */
+public interface GuessSource {
+    /**
+     * Get the guesses typed into the console. There is only one console
+     * source, so every game reading from the console shares it.
+     * 
+     * @return The console guess source.
+     */
+    static GuessSource console() {
+        return QueueGuessSource.console();
+    }
+
+    /**
+     * Wait for a player's next guess of a song.
+     * 
+     * @param song The song being guessed.
+     * @param player The player guessing.
+     * @param timeout How long to wait, or 0 or less to wait forever.
+     * @param unit The unit of the timeout.
+     * @return The guess, or null if no guess was given in time or there are
+     * no more guesses.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    String nextGuess(Song song, Player player, long timeout, TimeUnit unit)
+    throws InterruptedException;
+}
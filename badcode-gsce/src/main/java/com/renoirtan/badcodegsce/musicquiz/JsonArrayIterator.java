@@ -0,0 +1,99 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.MalformedJsonException;
+
+/**
+ * An iterator that reads the elements of a json array one at a time, so
+ * only the element currently being read is held in memory. Subclasses only
+ * have to read a single element, see {@link #readElement()}.
+ * 
+ * @param <T> The type of the elements.
+ */
+public abstract class JsonArrayIterator<T> implements Iterator<T>, Closeable {
+    protected JsonReader reader;
+
+    /**
+     * Whether the opening bracket of the array has been read yet.
+     */
+    protected boolean started;
+
+    /**
+     * Create an iterator over the elements of a json array.
+     * 
+     * @param reader The json file input stream.
+     */
+    protected JsonArrayIterator(Reader reader) {
+        this.reader = new JsonReader(reader);
+        this.started = false;
+    }
+
+    /**
+     * Read a single element from the json reader.
+     * 
+     * @return The element.
+     * @throws IOException If the element could not be read.
+     */
+    protected abstract T readElement() throws IOException;
+
+    /**
+     * Wrap an {@link IOException} the same way {@link com.google.gson.Gson}
+     * does, since {@link Iterator} methods cannot throw checked exceptions.
+     * 
+     * @param e The exception thrown by the json reader.
+     * @return The unchecked exception to throw.
+     */
+    private static RuntimeException wrap(IOException e) {
+        if (e instanceof MalformedJsonException) {
+            return new JsonSyntaxException(e);
+        } else {
+            return new JsonIOException(e);
+        }
+    }
+
+    // Iterator<T>
+
+    @Override
+    public boolean hasNext() {
+        try {
+            if (!this.started) {
+                this.reader.beginArray();
+                this.started = true;
+            }
+            return this.reader.hasNext();
+        } catch (IOException e) {
+            throw JsonArrayIterator.wrap(e);
+        } catch (IllegalStateException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        try {
+            return this.readElement();
+        } catch (IOException e) {
+            throw JsonArrayIterator.wrap(e);
+        } catch (NumberFormatException | IllegalStateException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    // Closeable
+
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+}
@@ -0,0 +1,116 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts durations in buckets whose bounds are powers of 2 nanoseconds, so
+ * recording a duration is a single uncontended add no matter how many
+ * threads record at once. Percentiles are only as precise as the buckets,
+ * that is, within a factor of 2.
+ */
+public class LatencyHistogram {
+    /**
+     * Bucket {@code i} counts durations below {@code 2^i} nanoseconds which
+     * are not in a lower bucket.
+     */
+    protected LongAdder[] buckets;
+    protected LongAdder total;
+    protected LongAdder sum;
+
+    /**
+     * Create an empty histogram.
+     */
+    public LatencyHistogram() {
+        this.buckets = new LongAdder[Long.SIZE];
+        for (int bucket = 0; bucket < this.buckets.length; bucket++) {
+            this.buckets[bucket] = new LongAdder();
+        }
+        this.total = new LongAdder();
+        this.sum = new LongAdder();
+    }
+
+    /**
+     * Count a duration.
+     * 
+     * @param nanos The duration in nanoseconds. Negative durations count as
+     * 0.
+     */
+    public void record(long nanos) {
+        nanos = Math.max(nanos, 0);
+        int bucket = Math.min(Long.SIZE - Long.numberOfLeadingZeros(nanos), Long.SIZE - 1);
+        this.buckets[bucket].increment();
+        this.total.increment();
+        this.sum.add(nanos);
+    }
+
+    /**
+     * Count the durations recorded.
+     * 
+     * @return The number of durations.
+     */
+    public long count() {
+        return this.total.sum();
+    }
+
+    /**
+     * Get the average duration.
+     * 
+     * @return The mean in nanoseconds, or 0 if nothing was recorded.
+     */
+    public double mean() {
+        long count = this.count();
+        return count == 0 ? 0 : (double) this.sum.sum() / count;
+    }
+
+    /**
+     * Get a duration which a fraction of the recorded durations are below.
+     * 
+     * @param fraction The fraction, such as 0.99 for the 99th percentile.
+     * @return The upper bound of the bucket holding the percentile in
+     * nanoseconds, or 0 if nothing was recorded.
+     */
+    public long percentile(double fraction) {
+        long[] counts = this.snapshot();
+        long count = 0;
+        for (long bucketCount : counts) {
+            count += bucketCount;
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(Math.min(Math.max(fraction, 0), 1) * count);
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank && counts[bucket] > 0) {
+                return bucket == Long.SIZE - 1 ? Long.MAX_VALUE : 1L << bucket;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Copy the count of every bucket.
+     * 
+     * @return The counts, where index {@code i} counts durations below
+     * {@code 2^i} nanoseconds.
+     */
+    public long[] snapshot() {
+        long[] counts = new long[this.buckets.length];
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            counts[bucket] = this.buckets[bucket].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * Forget every recorded duration.
+     */
+    public void reset() {
+        for (LongAdder bucket : this.buckets) {
+            bucket.reset();
+        }
+        this.total.reset();
+        this.sum.reset();
+    }
+}
@@ -0,0 +1,371 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Ranks players by their total score across every game they play in. The
+ * leaderboard listens to score changes (see
+ * {@link Player#setScoreListener(ScoreListener)}) and keeps the players in
+ * an order statistic tree, so updating a player, finding the top players
+ * and finding the rank of a player are all O(log n) instead of sorting
+ * every player again after each round.
+ * 
+ * Players rank by a higher score first, then by fewer wrong guesses, then
+ * by their identity. Updates from many games can arrive at the same time:
+ * they are serialised by a lock, and queries share a read lock.
+ */
+public class Leaderboard implements ScoreListener {
+    /**
+     * A player's place on the leaderboard, copied so it can be read outside
+     * the lock.
+     */
+    public static class Standing {
+        protected long identity;
+        protected String username;
+        protected int score;
+        protected int incorrect;
+        protected int rank;
+
+        protected Standing(Entry entry, int rank) {
+            this.identity = entry.identity;
+            this.username = entry.username;
+            this.score = entry.score;
+            this.incorrect = entry.incorrect;
+            this.rank = rank;
+        }
+
+        public long getIdentity() {
+            return this.identity;
+        }
+
+        public String getUsername() {
+            return this.username;
+        }
+
+        public int getScore() {
+            return this.score;
+        }
+
+        public int getIncorrect() {
+            return this.incorrect;
+        }
+
+        /**
+         * Get the rank of the player, where 1 is first place.
+         * 
+         * @return The rank.
+         */
+        public int getRank() {
+            return this.rank;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "<Standing rank=\"%d\" username=\"%s\" score=\"%d\" incorrect=\"%d\"/>",
+                this.rank,
+                this.username,
+                this.score,
+                this.incorrect
+            );
+        }
+    }
+
+    /**
+     * The totals of a player across every game.
+     */
+    protected static class Entry {
+        protected long identity;
+        protected String username;
+        protected int score;
+        protected int incorrect;
+
+        protected Entry(long identity, String username) {
+            this.identity = identity;
+            this.username = username;
+        }
+    }
+
+    /**
+     * A node of the tree, which is a treap: ordered by entry like a binary
+     * search tree, and by priority like a heap. Priorities are derived from
+     * identities, which keeps the tree balanced in expectation.
+     */
+    protected static class Node {
+        protected Entry entry;
+        protected long priority;
+        protected int size;
+        protected Node left;
+        protected Node right;
+
+        protected Node(Entry entry) {
+            this.entry = entry;
+            this.priority = GameRandom.mix64(entry.identity);
+            this.size = 1;
+        }
+    }
+
+    /**
+     * Compare 2 entries by rank.
+     * 
+     * @return A negative number if {@code a} ranks above {@code b}.
+     */
+    protected static int compare(Entry a, Entry b) {
+        if (a.score != b.score) {
+            return Integer.compare(b.score, a.score);
+        } else if (a.incorrect != b.incorrect) {
+            return Integer.compare(a.incorrect, b.incorrect);
+        } else {
+            return Long.compare(a.identity, b.identity);
+        }
+    }
+
+    private static int sizeOf(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static Node resize(Node node) {
+        node.size = 1 + Leaderboard.sizeOf(node.left) + Leaderboard.sizeOf(node.right);
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = Leaderboard.resize(node);
+        return Leaderboard.resize(left);
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = Leaderboard.resize(node);
+        return Leaderboard.resize(right);
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (Leaderboard.compare(added.entry, node.entry) < 0) {
+            node.left = Leaderboard.insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                return Leaderboard.rotateRight(Leaderboard.resize(node));
+            }
+        } else {
+            node.right = Leaderboard.insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                return Leaderboard.rotateLeft(Leaderboard.resize(node));
+            }
+        }
+        return Leaderboard.resize(node);
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        } else if (right == null) {
+            return left;
+        } else if (left.priority > right.priority) {
+            left.right = Leaderboard.merge(left.right, right);
+            return Leaderboard.resize(left);
+        } else {
+            right.left = Leaderboard.merge(left, right.left);
+            return Leaderboard.resize(right);
+        }
+    }
+
+    private static Node delete(Node node, Entry entry) {
+        if (node == null) {
+            return null;
+        }
+        int order = Leaderboard.compare(entry, node.entry);
+        if (order == 0) {
+            return Leaderboard.merge(node.left, node.right);
+        } else if (order < 0) {
+            node.left = Leaderboard.delete(node.left, entry);
+        } else {
+            node.right = Leaderboard.delete(node.right, entry);
+        }
+        return Leaderboard.resize(node);
+    }
+
+    protected Node root;
+    protected LongHashMap<Node> nodes;
+    protected ReentrantReadWriteLock lock;
+
+    /**
+     * Create an empty leaderboard.
+     */
+    public Leaderboard() {
+        this.root = null;
+        this.nodes = new LongHashMap<>();
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * Count the players on the leaderboard.
+     * 
+     * @return The number of players.
+     */
+    public int size() {
+        this.lock.readLock().lock();
+        try {
+            return Leaderboard.sizeOf(this.root);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add the players of a game to the leaderboard with no change to their
+     * totals, and listen to their score changes from now on.
+     * 
+     * @param manager The players of the game.
+     * @return This leaderboard.
+     */
+    public Leaderboard track(PlayersManager manager) {
+        manager.forEachPlayer(this::track);
+        return this;
+    }
+
+    /**
+     * Add a player to the leaderboard with no change to their totals, and
+     * listen to their score changes from now on.
+     * 
+     * @param player The player.
+     * @return This leaderboard.
+     */
+    public Leaderboard track(Player player) {
+        this.record(player, 0, 0);
+        player.setScoreListener(this);
+        return this;
+    }
+
+    @Override
+    public void scoreChanged(Player player, int scoreDelta, int incorrectDelta) {
+        this.record(player, scoreDelta, incorrectDelta);
+    }
+
+    /**
+     * Add to the totals of a player, adding them to the leaderboard if they
+     * are not on it yet.
+     * 
+     * @param player The player.
+     * @param scoreDelta How many points to add.
+     * @param incorrectDelta How many wrong guesses to add.
+     */
+    public void record(Player player, int scoreDelta, int incorrectDelta) {
+        long identity = player.getIdentity();
+        this.lock.writeLock().lock();
+        try {
+            Node node = this.nodes.get(identity);
+            if (node == null) {
+                node = new Node(new Entry(identity, player.getUsername()));
+                this.nodes.put(identity, node);
+            } else if (scoreDelta == 0 && incorrectDelta == 0) {
+                return;
+            } else {
+                // The entry's place depends on its totals, so take it out
+                // before changing them.
+                this.root = Leaderboard.delete(this.root, node.entry);
+                node.left = null;
+                node.right = null;
+                node.size = 1;
+            }
+            node.entry.score += scoreDelta;
+            node.entry.incorrect += incorrectDelta;
+            this.root = Leaderboard.insert(this.root, node);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the rank of a player.
+     * 
+     * @param identity The identity of the player.
+     * @return The rank, where 1 is first place, or -1 if the player is not
+     * on the leaderboard.
+     */
+    public int rankOf(long identity) {
+        this.lock.readLock().lock();
+        try {
+            Node target = this.nodes.get(identity);
+            return target == null ? -1 : this.rankOf(target.entry);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private int rankOf(Entry entry) {
+        int above = 0;
+        Node node = this.root;
+        while (node != null) {
+            int order = Leaderboard.compare(entry, node.entry);
+            if (order < 0) {
+                node = node.left;
+            } else {
+                above += Leaderboard.sizeOf(node.left);
+                if (order == 0) {
+                    break;
+                }
+                above++;
+                node = node.right;
+            }
+        }
+        return above + 1;
+    }
+
+    /**
+     * Get the standing of a player.
+     * 
+     * @param identity The identity of the player.
+     * @return The standing, or null if the player is not on the leaderboard.
+     */
+    public Standing getStanding(long identity) {
+        this.lock.readLock().lock();
+        try {
+            Node target = this.nodes.get(identity);
+            if (target == null) {
+                return null;
+            }
+            return new Standing(target.entry, this.rankOf(target.entry));
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the players in the top places.
+     * 
+     * @param count How many places to get.
+     * @return The standings of up to {@code count} players, from first place
+     * down.
+     */
+    public List<Standing> top(int count) {
+        this.lock.readLock().lock();
+        try {
+            ArrayList<Standing> standings = new ArrayList<>(
+                Math.max(0, Math.min(count, Leaderboard.sizeOf(this.root)))
+            );
+            this.collect(this.root, count, standings);
+            return standings;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private void collect(Node node, int count, ArrayList<Standing> standings) {
+        if (node == null || standings.size() >= count) {
+            return;
+        }
+        this.collect(node.left, count, standings);
+        if (standings.size() < count) {
+            standings.add(new Standing(node.entry, standings.size() + 1));
+            this.collect(node.right, count, standings);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from primitive {@code long} keys to values. Keys are stored in
+ * a plain {@code long[]} with open addressing (linear probing), so looking
+ * up, adding and removing entries does not box keys or allocate entry
+ * objects. Only growing the table allocates.
+ * 
+ * Null values cannot be stored, since null is used to mark empty slots.
+ * This map is not thread-safe.
+ * 
+ * @param <V> The type of the values.
+ */
+public class LongHashMap<V> {
+    protected long[] keys;
+    protected Object[] values;
+    protected int size;
+
+    /**
+     * The number of slots minus 1. The number of slots is always a power of
+     * 2, so this can be used to wrap indices around.
+     */
+    protected int mask;
+
+    /**
+     * Create an empty map.
+     */
+    public LongHashMap() {
+        this(16);
+    }
+
+    /**
+     * Create an empty map with space for a number of entries.
+     * 
+     * @param expected How many entries the map should hold without growing.
+     */
+    public LongHashMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(expected * 2 - 1, 15)) << 1;
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+        this.size = 0;
+    }
+
+    /**
+     * Get the slot a key would be stored in if there were no collisions.
+     * 
+     * @param key The key.
+     * @return The slot.
+     */
+    protected int slotOf(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & this.mask;
+    }
+
+    /**
+     * Find the slot holding a key.
+     * 
+     * @param key The key.
+     * @return The slot, or -1 if the key is not in the map.
+     */
+    protected int find(long key) {
+        for (int slot = this.slotOf(key); ; slot = (slot + 1) & this.mask) {
+            if (this.values[slot] == null) {
+                return -1;
+            } else if (this.keys[slot] == key) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Count the number of entries.
+     * 
+     * @return The number of entries.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Check whether the map has no entries.
+     * 
+     * @return true if the map is empty.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Check whether a key is in the map.
+     * 
+     * @param key The key.
+     * @return true if the key is in the map.
+     */
+    public boolean containsKey(long key) {
+        return this.find(key) >= 0;
+    }
+
+    /**
+     * Get the value of a key.
+     * 
+     * @param key The key.
+     * @return The value, or null if the key is not in the map.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int slot = this.find(key);
+        return slot < 0 ? null : (V) this.values[slot];
+    }
+
+    /**
+     * Set the value of a key.
+     * 
+     * @param key The key.
+     * @param value The value, which cannot be null.
+     * @return The previous value, or null if the key was not in the map.
+     */
+    public V put(long key, V value) {
+        return this.insert(key, value, true);
+    }
+
+    /**
+     * Set the value of a key if it is not in the map yet.
+     * 
+     * @param key The key.
+     * @param value The value, which cannot be null.
+     * @return The existing value, or null if the value was added.
+     */
+    public V putIfAbsent(long key, V value) {
+        return this.insert(key, value, false);
+    }
+
+    /**
+     * Add or replace an entry.
+     * 
+     * @param key The key.
+     * @param value The value.
+     * @param replace Whether to replace an existing value.
+     * @return The existing value, or null if the key was not in the map.
+     */
+    @SuppressWarnings("unchecked")
+    protected V insert(long key, V value, boolean replace) {
+        if (value == null) {
+            throw new NullPointerException("LongHashMap cannot store null.");
+        }
+        int slot = this.slotOf(key);
+        for (; this.values[slot] != null; slot = (slot + 1) & this.mask) {
+            if (this.keys[slot] == key) {
+                V existing = (V) this.values[slot];
+                if (replace) {
+                    this.values[slot] = value;
+                }
+                return existing;
+            }
+        }
+        this.keys[slot] = key;
+        this.values[slot] = value;
+        if (++this.size * 2 > this.keys.length) {
+            this.grow();
+        }
+        return null;
+    }
+
+    /**
+     * Remove a key.
+     * 
+     * @param key The key.
+     * @return The value of the key, or null if it was not in the map.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int slot = this.find(key);
+        if (slot < 0) {
+            return null;
+        }
+        V value = (V) this.values[slot];
+        // Move later entries of the same run back so that lookups do not
+        // stop at the new gap.
+        int gap = slot;
+        for (int next = (gap + 1) & this.mask;
+            this.values[next] != null;
+            next = (next + 1) & this.mask
+        ) {
+            int home = this.slotOf(this.keys[next]);
+            if (((next - home) & this.mask) >= ((next - gap) & this.mask)) {
+                this.keys[gap] = this.keys[next];
+                this.values[gap] = this.values[next];
+                gap = next;
+            }
+        }
+        this.keys[gap] = 0;
+        this.values[gap] = null;
+        this.size--;
+        return value;
+    }
+
+    /**
+     * Remove every entry.
+     */
+    public void clear() {
+        Arrays.fill(this.keys, 0);
+        Arrays.fill(this.values, null);
+        this.size = 0;
+    }
+
+    /**
+     * Double the number of slots.
+     */
+    @SuppressWarnings("unchecked")
+    protected void grow() {
+        long[] keys = this.keys;
+        Object[] values = this.values;
+        this.keys = new long[keys.length * 2];
+        this.values = new Object[values.length * 2];
+        this.mask = this.keys.length - 1;
+        this.size = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (values[slot] != null) {
+                this.insert(keys[slot], (V) values[slot], false);
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * A read-only song catalog stored in a compact binary file which is memory
+ * mapped instead of being parsed. {@link Song} objects are only created when
+ * a song is requested with {@link #getSong(int)}.
+ * 
+ * The file consists of:
+ * <ol>
+ *   <li>a header of 3 big-endian ints: {@link #MAGIC}, {@link #VERSION}
+ *   and the number of songs <i>n</i>,</li>
+ *   <li>an offset table of <i>2n + 1</i> ints, where entries <i>2i</i> and
+ *   <i>2i + 1</i> are where the name and artist of song <i>i</i> start in
+ *   the blob and the last entry is the length of the blob,</li>
+ *   <li>a blob of UTF-8 encoded names and artists.</li>
+ * </ol>
+ */
+public class MappedSongCatalog implements Closeable {
+    /**
+     * The first 4 bytes of every catalog file ("BCSC").
+     */
+    public static final int MAGIC = 0x42435343;
+
+    /**
+     * The version of the catalog format.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The size of the header in bytes.
+     */
+    protected static final int HEADER_SIZE = 3 * Integer.BYTES;
+
+    /**
+     * Compile songs into a catalog file. Each song's name and artist must
+     * not be null.
+     * 
+     * @param songs The songs to write.
+     * @param path Where to write the catalog.
+     * @return How many songs were written.
+     * @throws IOException If the catalog could not be written.
+     * @throws IllegalArgumentException If a song has no name or artist, or
+     * the catalog would be larger than 2GB.
+     */
+    public static int compile(Iterator<Song> songs, Path path)
+    throws
+        IOException,
+        IllegalArgumentException
+    {
+        Path blobPath = Files.createTempFile("songs", ".blob");
+        try {
+            int[] offsets = new int[1024];
+            int entries = 0;
+            long blobSize = 0;
+            try (OutputStream blob = new BufferedOutputStream(
+                Files.newOutputStream(blobPath)
+            )) {
+                while (songs.hasNext()) {
+                    Song song = songs.next();
+                    if (song.getName() == null || song.getArtist() == null) {
+                        throw new IllegalArgumentException(
+                            "Songs in a catalog must have a name and an artist."
+                        );
+                    }
+                    byte[] name = song.getName().getBytes(StandardCharsets.UTF_8);
+                    byte[] artist = song.getArtist().getBytes(StandardCharsets.UTF_8);
+                    if (entries + 3 > offsets.length) {
+                        offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                    }
+                    offsets[entries++] = (int) blobSize;
+                    offsets[entries++] = (int) (blobSize + name.length);
+                    blobSize += name.length + artist.length;
+                    if (blobSize > Integer.MAX_VALUE - HEADER_SIZE - 4L * entries) {
+                        throw new IllegalArgumentException(
+                            "Song catalogs cannot be larger than 2GB."
+                        );
+                    }
+                    blob.write(name);
+                    blob.write(artist);
+                }
+            }
+            offsets[entries] = (int) blobSize;
+            int count = entries / 2;
+
+            try (FileChannel out = FileChannel.open(
+                path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE
+            )) {
+                DataOutputStream header = new DataOutputStream(
+                    new BufferedOutputStream(
+                        Channels.newOutputStream(out)
+                    )
+                );
+                header.writeInt(MAGIC);
+                header.writeInt(VERSION);
+                header.writeInt(count);
+                for (int entry = 0; entry <= entries; entry++) {
+                    header.writeInt(offsets[entry]);
+                }
+                header.flush();
+                try (FileChannel in = FileChannel.open(blobPath)) {
+                    long copied = 0;
+                    while (copied < blobSize) {
+                        copied += in.transferTo(copied, blobSize - copied, out);
+                    }
+                }
+            }
+            return count;
+        } finally {
+            Files.deleteIfExists(blobPath);
+        }
+    }
+
+    /**
+     * Map an existing catalog file into memory.
+     * 
+     * @param path The path to the catalog.
+     * @return The mapped catalog.
+     * @throws IOException If the file could not be read or is not a catalog.
+     */
+    public static MappedSongCatalog open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path)) {
+            return new MappedSongCatalog(
+                channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+            );
+        }
+    }
+
+    protected MappedByteBuffer buffer;
+    protected int count;
+
+    /**
+     * Where the blob starts in the file.
+     */
+    protected int blobStart;
+
+    /**
+     * Create a catalog from a mapped file.
+     * 
+     * @param buffer The mapped catalog file.
+     * @throws IOException If the file is not a catalog.
+     */
+    protected MappedSongCatalog(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a song catalog.");
+        } else if (buffer.getInt(4) != VERSION) {
+            throw new IOException(String.format(
+                "Unsupported song catalog version: %d",
+                buffer.getInt(4)
+            ));
+        }
+        this.count = buffer.getInt(8);
+        this.blobStart = HEADER_SIZE + (2 * this.count + 1) * Integer.BYTES;
+        if (this.count < 0 || this.blobStart > buffer.capacity()) {
+            throw new IOException("Song catalog is truncated.");
+        }
+    }
+
+    /**
+     * Count the number of songs in the catalog.
+     * 
+     * @return The number of songs.
+     */
+    public int countSongs() {
+        return this.count;
+    }
+
+    /**
+     * Get the offset of an entry in the blob.
+     * 
+     * @param entry The index of the entry in the offset table.
+     * @return The offset of the entry in the blob.
+     */
+    private int offset(int entry) {
+        return this.buffer.getInt(HEADER_SIZE + entry * Integer.BYTES);
+    }
+
+    /**
+     * Decode a string from the blob.
+     * 
+     * @param start Where the string starts in the blob.
+     * @param end Where the string ends in the blob.
+     * @return The decoded string.
+     */
+    private String decode(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        ByteBuffer view = this.buffer.duplicate();
+        view.position(this.blobStart + start);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read a song from the catalog. A new {@link Song} is created each time.
+     * 
+     * @param index The index of the song.
+     * @return The song.
+     * @throws IndexOutOfBoundsException If there is no song at that index.
+     */
+    public Song getSong(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= this.count) {
+            throw new IndexOutOfBoundsException(String.format(
+                "Index %d out of bounds for %d songs.",
+                index,
+                this.count
+            ));
+        }
+        int nameStart = this.offset(2 * index);
+        int artistStart = this.offset(2 * index + 1);
+        int artistEnd = this.offset(2 * index + 2);
+        return new Song(
+            this.decode(nameStart, artistStart),
+            this.decode(artistStart, artistEnd)
+        );
+    }
+
+    // Closeable
+
+    /**
+     * Release the mapping. The file stays mapped until the buffer is garbage
+     * collected, but this catalog can no longer be used.
+     */
+    @Override
+    public void close() {
+        this.buffer = null;
+        this.count = 0;
+    }
+}
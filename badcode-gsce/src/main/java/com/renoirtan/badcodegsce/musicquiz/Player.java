@@ -21,20 +21,27 @@ public class Player {
             String username,
             String password
         ) throws Exception {
-            int authId = Hasher.hashUsernameAndPassword(username, password);
-            return new PlayerImportBean(username, authId);
+            Hasher hasher = Hasher.local();
+            int authId = hasher.hashToInt(username, password);
+            return new PlayerImportBean(username, authId, hasher.lastHashToLong());
         }
 
         private String username;
         private int authId;
+        private long wideId;
 
         public PlayerImportBean() {
             this("Unknown", 0);
         }
 
         public PlayerImportBean(String username, int authId) {
+            this(username, authId, 0);
+        }
+
+        public PlayerImportBean(String username, int authId, long wideId) {
             this.username = username;
             this.authId = authId;
+            this.wideId = wideId;
         }
 
         @Override
@@ -61,11 +68,20 @@ public class Player {
         public void setAuthId(int authId) {
             this.authId = authId;
         }
+
+        public long getWideId() {
+            return this.wideId;
+        }
+
+        public void setWideId(long wideId) {
+            this.wideId = wideId;
+        }
     }
 
     public static class PlayerExportBean {
         private String username;
         private int authId;
+        private long wideId;
         private int score;
         private int incorrect;
 
@@ -78,9 +94,20 @@ public class Player {
             int authId,
             int score,
             int incorrect
+        ) {
+            this(username, authId, 0, score, incorrect);
+        }
+
+        public PlayerExportBean(
+            String username,
+            int authId,
+            long wideId,
+            int score,
+            int incorrect
         ) {
             this.username = username;
             this.authId = authId;
+            this.wideId = wideId;
             this.score = score;
             this.incorrect = incorrect;
         }
@@ -101,6 +128,24 @@ public class Player {
             this.authId = authId;
         }
 
+        public long getWideId() {
+            return this.wideId;
+        }
+
+        public void setWideId(long wideId) {
+            this.wideId = wideId;
+        }
+
+        /**
+         * Get the value that identifies the player, the same way as
+         * {@link Player#getIdentity()}.
+         * 
+         * @return The wide ID if there is one, and the ID otherwise.
+         */
+        public long getIdentity() {
+            return this.wideId != 0 ? this.wideId : this.authId;
+        }
+
         public int getScore() {
             return this.score;
         }
@@ -167,6 +212,35 @@ public class Player {
         );
     }
 
+    /**
+     * Read players lazily from a json file. Unlike
+     * {@link #importPlayersFromJson(Reader)}, the players are never
+     * collected into a list of beans or players.
+     * 
+     * @param reader The json file input stream.
+     * @return An iterator over the players in the file.
+     */
+    public static PlayerJsonIterator streamPlayersFromJson(Reader reader) {
+        return new PlayerJsonIterator(reader);
+    }
+
+    /**
+     * Read players from a json file straight into a manager.
+     * 
+     * @param reader The json file input stream.
+     * @param manager The manager the players are added to.
+     * @return How many players were added. Duplicate players are skipped.
+     * @throws Exception If the json file could not be read.
+     */
+    public static int importPlayersFromJson(
+        Reader reader,
+        PlayersManager manager
+    ) throws Exception {
+        try (PlayerJsonIterator players = Player.streamPlayersFromJson(reader)) {
+            return manager.addPlayers(players);
+        }
+    }
+
     /**
      * The name of the player.
      */
@@ -178,6 +252,14 @@ public class Player {
      */
     protected int authId;
 
+    /**
+     * A 64-bit ID of the player derived from their whole credential digest,
+     * see {@link Hasher#sha256ToLong(byte[])}. This is 0 for players created
+     * before wide IDs existed, in which case {@link #authId} is used to
+     * identify them instead.
+     */
+    protected long wideId;
+
     /**
      * The score of the player has accumulated.
      */
@@ -194,6 +276,22 @@ public class Player {
      */
     protected int currentIncorrect;
 
+    /**
+     * The scoreboard holding this player's counters, or null if they are
+     * kept in the fields above. See {@link Scoreboard}.
+     */
+    protected Scoreboard scoreboard;
+
+    /**
+     * This player's slot on {@link #scoreboard}.
+     */
+    protected int slot = -1;
+
+    /**
+     * Told whenever this player's score or wrong guesses change, or null.
+     */
+    protected ScoreListener scoreListener;
+
     /**
      * How many chances a player has before a wrong guess induces a game
      * termination event.
@@ -238,14 +336,27 @@ public class Player {
      * @param authId The identity of the player.
      */
     public Player(String username, int authId) {
+        this(username, authId, 0);
+    }
+
+    /**
+     * Create a player with a wide ID.
+     * 
+     * @param username The username of the player.
+     * @param authId The identity of the player.
+     * @param wideId The 64-bit identity of the player, or 0 if unknown.
+     */
+    public Player(String username, int authId, long wideId) {
         this.username = username;
         this.authId = authId;
+        this.wideId = wideId;
         this.init();
     }
 
     public Player(PlayerImportBean bean) {
         this.username = bean.getUsername();
         this.authId = bean.getAuthId();
+        this.wideId = bean.getWideId();
     }
 
     /**
@@ -257,6 +368,7 @@ public class Player {
         return new PlayerExportBean(
             this.getUsername(),
             this.getAuthId(),
+            this.getWideId(),
             this.getScore(),
             this.getTotalIncorrect()
         );
@@ -264,16 +376,16 @@ public class Player {
 
     @Override
     public boolean equals(Object other) {
-        if (this.getClass() != other.getClass()) {
+        if (other == null || this.getClass() != other.getClass()) {
             return false;
         } else {
-            return this.authId == ((Player) other).authId;
+            return this.getIdentity() == ((Player) other).getIdentity();
         }
     }
 
     @Override
     public int hashCode() {
-        return Integer.hashCode(authId);
+        return Long.hashCode(this.getIdentity());
     }
 
     @Override
@@ -303,13 +415,143 @@ public class Player {
         return this.authId;
     }
 
+    /**
+     * Get the 64-bit ID of the player.
+     * 
+     * @return The wide ID of the player, or 0 if it is not known.
+     */
+    public long getWideId() {
+        return this.wideId;
+    }
+
+    /**
+     * Get the value that identifies this player. This is the wide ID if the
+     * player has one, and the ID otherwise.
+     * 
+     * @return The identity of the player.
+     */
+    public long getIdentity() {
+        return this.wideId != 0 ? this.wideId : this.authId;
+    }
+
     /**
      * Get the player's current score.
      * 
      * @return The player's current score.
      */
     public int getScore() {
-        return this.score;
+        return this.readScore();
+    }
+
+    /**
+     * Get what is told when this player's score or wrong guesses change.
+     * 
+     * @return The listener, or null if there is none.
+     */
+    public ScoreListener getScoreListener() {
+        return this.scoreListener;
+    }
+
+    /**
+     * Tell a listener (such as a {@link Leaderboard}) whenever this player's
+     * score or wrong guesses change.
+     * 
+     * @param listener The listener, or null to stop telling anyone.
+     * @return This player.
+     */
+    public Player setScoreListener(ScoreListener listener) {
+        this.scoreListener = listener;
+        return this;
+    }
+
+    /**
+     * Get the scoreboard holding this player's counters.
+     * 
+     * @return The scoreboard, or null if the player is not on one.
+     */
+    public Scoreboard getScoreboard() {
+        return this.scoreboard;
+    }
+
+    /**
+     * Get this player's slot on their scoreboard.
+     * 
+     * @return The slot, or -1 if the player is not on a scoreboard.
+     */
+    public int getSlot() {
+        return this.slot;
+    }
+
+    /**
+     * Move this player's counters into a slot of a scoreboard and read and
+     * write them there from now on. Called by {@link Scoreboard#add(Player)}
+     * once the slot has been set aside.
+     * 
+     * @param scoreboard The scoreboard.
+     * @param slot The slot of this player.
+     */
+    void attach(Scoreboard scoreboard, int slot) {
+        int score = this.readScore();
+        int previousIncorrect = this.readPreviousIncorrect();
+        int currentIncorrect = this.readCurrentIncorrect();
+        this.scoreboard = scoreboard;
+        this.slot = slot;
+        this.writeScore(score);
+        this.writePreviousIncorrect(previousIncorrect);
+        this.writeCurrentIncorrect(currentIncorrect);
+    }
+
+    /**
+     * Copy this player's counters back from their scoreboard and stop using
+     * it.
+     */
+    void detach() {
+        if (this.scoreboard != null) {
+            this.score = this.readScore();
+            this.previousIncorrect = this.readPreviousIncorrect();
+            this.currentIncorrect = this.readCurrentIncorrect();
+            this.scoreboard = null;
+            this.slot = -1;
+        }
+    }
+
+    private int readScore() {
+        return this.scoreboard == null ?
+            this.score : this.scoreboard.scores[this.slot];
+    }
+
+    private void writeScore(int score) {
+        if (this.scoreboard == null) {
+            this.score = score;
+        } else {
+            this.scoreboard.scores[this.slot] = score;
+        }
+    }
+
+    private int readPreviousIncorrect() {
+        return this.scoreboard == null ?
+            this.previousIncorrect : this.scoreboard.previousIncorrect[this.slot];
+    }
+
+    private void writePreviousIncorrect(int previousIncorrect) {
+        if (this.scoreboard == null) {
+            this.previousIncorrect = previousIncorrect;
+        } else {
+            this.scoreboard.previousIncorrect[this.slot] = previousIncorrect;
+        }
+    }
+
+    private int readCurrentIncorrect() {
+        return this.scoreboard == null ?
+            this.currentIncorrect : this.scoreboard.currentIncorrect[this.slot];
+    }
+
+    private void writeCurrentIncorrect(int currentIncorrect) {
+        if (this.scoreboard == null) {
+            this.currentIncorrect = currentIncorrect;
+        } else {
+            this.scoreboard.currentIncorrect[this.slot] = currentIncorrect;
+        }
     }
 
     /**
@@ -318,7 +560,7 @@ public class Player {
      * @return The number of incorrect guesses.
      */
     public int getTotalIncorrect() {
-        return this.currentIncorrect + this.previousIncorrect;
+        return this.readCurrentIncorrect() + this.readPreviousIncorrect();
     }
 
     /**
@@ -328,8 +570,10 @@ public class Player {
      * @return This player object.
      */
     protected Player flushCurrentIncorrect() {
-        this.previousIncorrect += this.currentIncorrect;
-        this.currentIncorrect = 0;
+        this.writePreviousIncorrect(
+            this.readPreviousIncorrect() + this.readCurrentIncorrect()
+        );
+        this.writeCurrentIncorrect(0);
         return this;
     }
 
@@ -340,7 +584,7 @@ public class Player {
      * @return True or false
      */
     protected boolean gameOver() {
-        return this.currentIncorrect >= 2;
+        return this.readCurrentIncorrect() >= 2;
     }
 
     /**
@@ -349,7 +593,7 @@ public class Player {
      * @return Number of remaining chances.
      */
     protected int chancesLeft() {
-        return Player.getAllowedChances() - this.currentIncorrect;
+        return Player.getAllowedChances() - this.readCurrentIncorrect();
     }
 
     /**
@@ -361,10 +605,11 @@ public class Player {
      * password.
      */
     public boolean authenticate(String password) throws Exception {
-        return this.getAuthId() == Hasher.hashUsernameAndPassword(
-            this.getUsername(),
-            password
-        );
+        Hasher hasher = Hasher.local();
+        if (this.getAuthId() != hasher.hashToInt(this.getUsername(), password)) {
+            return false;
+        }
+        return this.getWideId() == 0 || this.getWideId() == hasher.lastHashToLong();
     }
 
     /**
@@ -377,22 +622,29 @@ public class Player {
      * @throws Exception If the number of incorrect guesses is negative.
      */
     protected Player guessCorrectly() throws Exception {
-        if (this.currentIncorrect < 0) {
+        int currentIncorrect = this.readCurrentIncorrect();
+        if (currentIncorrect < 0) {
             throw new Exception(
                 "Player.currentIncorrect cannot be less than 0."
             );
         }
-        switch (this.currentIncorrect) {
+        int points;
+        switch (currentIncorrect) {
             case 0:
-                this.score += 3;
+                points = 3;
                 break;
             case 1:
-                this.score += 1;
+                points = 1;
                 break;
             default:
                 return this;
         }
-        return this.flushCurrentIncorrect();
+        this.writeScore(this.readScore() + points);
+        this.flushCurrentIncorrect();
+        if (this.scoreListener != null) {
+            this.scoreListener.scoreChanged(this, points, 0);
+        }
+        return this;
     }
 
     /**
@@ -408,7 +660,10 @@ public class Player {
         if (correct) {
             this.guessCorrectly();
         } else {
-            this.currentIncorrect += 1;
+            this.writeCurrentIncorrect(this.readCurrentIncorrect() + 1);
+            if (this.scoreListener != null) {
+                this.scoreListener.scoreChanged(this, 0, 1);
+            }
         }
         return this.gameOver();
     }
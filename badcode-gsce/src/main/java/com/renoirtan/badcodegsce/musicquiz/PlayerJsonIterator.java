@@ -0,0 +1,60 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
+
+import com.google.gson.stream.JsonToken;
+
+/**
+ * An iterator that reads players one at a time from a json array of
+ * players, in the same format as {@link Player.PlayerImportBean}. Each
+ * player is built straight from the json, without an intermediate bean or
+ * list, so it can be passed to {@link PlayersManager#addPlayers(Iterator)}
+ * to load rosters of any size.
+ */
+public class PlayerJsonIterator extends JsonArrayIterator<Player> {
+    /**
+     * Create an iterator over the players in a json array.
+     * 
+     * @param reader The json file input stream.
+     */
+    public PlayerJsonIterator(Reader reader) {
+        super(reader);
+    }
+
+    /**
+     * Read a single player object from the json reader. Unknown fields are
+     * skipped and missing fields are the same as in
+     * {@link Player.PlayerImportBean#PlayerImportBean()}.
+     * 
+     * @return The player.
+     * @throws IOException If the player object could not be read.
+     */
+    @Override
+    protected Player readElement() throws IOException {
+        String username = "Unknown";
+        int authId = 0;
+        long wideId = 0;
+        this.reader.beginObject();
+        while (this.reader.hasNext()) {
+            String field = this.reader.nextName();
+            if (this.reader.peek() == JsonToken.NULL) {
+                this.reader.nextNull();
+                if (field.equals("username")) {
+                    username = null;
+                }
+            } else if (field.equals("username")) {
+                username = this.reader.nextString();
+            } else if (field.equals("authId")) {
+                authId = this.reader.nextInt();
+            } else if (field.equals("wideId")) {
+                wideId = this.reader.nextLong();
+            } else {
+                this.reader.skipValue();
+            }
+        }
+        this.reader.endObject();
+        return new Player(username, authId, wideId);
+    }
+}
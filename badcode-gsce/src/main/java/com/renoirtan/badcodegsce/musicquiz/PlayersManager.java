@@ -3,15 +3,58 @@ package com.renoirtan.badcodegsce.musicquiz;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.function.Consumer;
 
 /**
- * A class that watches and cycles over the players in a game. It stores an
- * array of player objects and the index of the player currently trying to
- * guess the song.
+ * A class that watches and cycles over the players in a game. The players
+ * are kept in a ring (a circular doubly linked list) in the order they
+ * joined, with a cursor on the player whose turn is next. Taking a turn,
+ * eliminating a player and adding a late joiner only relink a few nodes, so
+ * they are O(1) no matter how many players there are.
+ * 
+ * Methods that work with indices ({@link #removePlayer(int)},
+ * {@link #getCurrentIndex()} and {@link #nextIndex()}) are kept for
+ * compatibility, but they walk the ring and are O(n).
  */
 public class PlayersManager implements Iterator<Player> {
-    protected ArrayList<Player> players;
-    protected int index;
+    /**
+     * A player's place in the ring.
+     */
+    protected static class Node {
+        protected Player player;
+        protected Node previous;
+        protected Node next;
+
+        protected Node(Player player) {
+            this.player = player;
+            this.previous = this;
+            this.next = this;
+        }
+    }
+
+    /**
+     * The player who joined first, where each round of turns starts, or null
+     * if there are no players.
+     */
+    protected Node head;
+
+    /**
+     * The player whose turn is next, or null if there are no players.
+     */
+    protected Node cursor;
+
+    /**
+     * The player returned by the last call to {@link #next()}, or null if
+     * they have been removed since.
+     */
+    protected Node last;
+
+    /**
+     * A map from the identity of each player to their node in the ring, used
+     * to find, remove and check for duplicate players in O(1).
+     */
+    protected LongHashMap<Node> lookup;
+    protected int size;
     protected int turns;
 
     /**
@@ -20,7 +63,8 @@ public class PlayersManager implements Iterator<Player> {
      * @return The PlayersManager object.
      */
     private PlayersManager init() {
-        this.index = 0;
+        this.cursor = this.head;
+        this.last = null;
         this.turns = 0;
         return this;
     }
@@ -29,7 +73,7 @@ public class PlayersManager implements Iterator<Player> {
      * The default constructor for PlayersManager.
      */
     public PlayersManager() {
-        this.players = new ArrayList<>();
+        this.lookup = new LongHashMap<>();
         this.init();
     }
 
@@ -39,7 +83,9 @@ public class PlayersManager implements Iterator<Player> {
      * @param players The list of players.
      */
     public PlayersManager(Collection<Player> players) {
-        this(players.iterator());
+        this.lookup = new LongHashMap<>(players.size());
+        this.addPlayers(players.iterator());
+        this.init();
     }
 
     /**
@@ -48,10 +94,8 @@ public class PlayersManager implements Iterator<Player> {
      * @param players The iterator of players.
      */
     public PlayersManager(Iterator<Player> players) {
-        this.players = new ArrayList<>();
-        while (players.hasNext()) {
-            this.players.add(players.next());
-        }
+        this.lookup = new LongHashMap<>();
+        this.addPlayers(players);
         this.init();
     }
 
@@ -61,7 +105,7 @@ public class PlayersManager implements Iterator<Player> {
      * @return The number of players in the game.
      */
     public int playerCount() {
-        return this.players.size();
+        return this.size;
     }
 
     /**
@@ -70,7 +114,7 @@ public class PlayersManager implements Iterator<Player> {
      * @return true if there are no players in the game.
      */
     public boolean isEmpty() {
-        return this.players.isEmpty();
+        return this.size == 0;
     }
 
     /**
@@ -83,30 +127,63 @@ public class PlayersManager implements Iterator<Player> {
     }
 
     /**
-     * Add a player to the game.
+     * Add a player to the game. They are placed at the end of the ring, so
+     * a player joining late takes their first turn at the end of the current
+     * round.
      * 
      * @param player The new player.
      * @return Whether the player could be added.
      */
     public boolean addPlayer(Player player) {
-        if (this.players.contains(player)) {
+        Node node = new Node(player);
+        if (this.lookup.putIfAbsent(player.getIdentity(), node) != null) {
             return false;
+        }
+        if (this.head == null) {
+            this.head = node;
+            this.cursor = node;
         } else {
-            this.players.add(player);
-            return true;
+            node.next = this.head;
+            node.previous = this.head.previous;
+            this.head.previous.next = node;
+            this.head.previous = node;
         }
+        this.size++;
+        return true;
     }
 
     /**
-     * Add players from a list of players.
+     * Add players from a list of players. Space for all of the players is
+     * reserved up front so that the duplicate lookup only has to grow once.
      * 
      * @param players The list of players.
      * @return How many players could be added.
      */
     public int addPlayers(Collection<Player> players) {
+        this.reserve(players.size());
         return this.addPlayers(players.iterator());
     }
 
+    /**
+     * Make room for a number of extra players.
+     * 
+     * @param extra How many more players are expected to be added.
+     * @return This PlayersManager object.
+     */
+    public PlayersManager reserve(int extra) {
+        int expected = this.playerCount() + extra;
+        if (extra > this.lookup.size()) {
+            LongHashMap<Node> lookup = new LongHashMap<>(expected);
+            Node node = this.head;
+            for (int remaining = this.size; remaining > 0; remaining--) {
+                lookup.put(node.player.getIdentity(), node);
+                node = node.next;
+            }
+            this.lookup = lookup;
+        }
+        return this;
+    }
+
     /**
      * Add players from an iterator of players.
      * 
@@ -123,6 +200,53 @@ public class PlayersManager implements Iterator<Player> {
         return added;
     }
 
+    /**
+     * Take a node out of the ring.
+     * 
+     * @param node The node.
+     * @return The player of the node.
+     */
+    protected Player unlink(Node node) {
+        if (this.size == 1) {
+            this.head = null;
+            this.cursor = null;
+        } else {
+            node.previous.next = node.next;
+            node.next.previous = node.previous;
+            if (node == this.head) {
+                this.head = node.next;
+            }
+            if (node == this.cursor) {
+                this.cursor = node.next;
+            }
+        }
+        if (node == this.last) {
+            this.last = null;
+        }
+        node.next = node;
+        node.previous = node;
+        this.lookup.remove(node.player.getIdentity());
+        this.size--;
+        return node.player;
+    }
+
+    /**
+     * Get the node at an index, counting from the player who joined first.
+     * 
+     * @param index The index of the player.
+     * @return The node, or null if the index is out of bounds.
+     */
+    protected Node nodeAt(int index) {
+        if (index < 0 || index >= this.size) {
+            return null;
+        }
+        Node node = this.head;
+        for (int step = 0; step < index; step++) {
+            node = node.next;
+        }
+        return node;
+    }
+
     /**
      * Remove a player by their index in the list and return them. If the index
      * is out of bounds, null is returned.
@@ -131,37 +255,70 @@ public class PlayersManager implements Iterator<Player> {
      * @return The player that used to be at that index.
      */
     public Player removePlayer(int index) {
-        try {
-            return this.players.remove(index);
-        } catch (Exception e) {
-            return null;
-        }
+        Node node = this.nodeAt(index);
+        return node == null ? null : this.unlink(node);
+    }
+
+    /**
+     * Find a player by their identity (see {@link Player#getIdentity()}).
+     * 
+     * @param identity The identity of the player.
+     * @return The player, or null if there is no such player.
+     */
+    public Player getPlayerById(long identity) {
+        Node node = this.lookup.get(identity);
+        return node == null ? null : node.player;
     }
 
     /**
-     * Remove the last player.
+     * Check whether a player with an identity is in the game.
      * 
-     * @return The last player.
+     * @param identity The identity of the player.
+     * @return true if the player is in the game.
+     */
+    public boolean containsId(long identity) {
+        return this.lookup.containsKey(identity);
+    }
+
+    /**
+     * Remove a player by their identity.
+     * 
+     * @param identity The identity of the player.
+     * @return The player, or null if there is no such player.
+     */
+    public Player removePlayerById(long identity) {
+        Node node = this.lookup.get(identity);
+        return node == null ? null : this.unlink(node);
+    }
+
+    /**
+     * Remove the player returned by the last call to {@link #next()}. The
+     * player whose turn is next does not change.
+     * 
+     * @return The last player, or null if there is none.
      */
     public Player removeLastPlayer() {
-        if (this.playerCount() == 1) {
-            this.index = 0;
-            return this.removePlayer(0);
-        }
-        this.index--;
-        return this.removePlayer(this.wrapIndex().getCurrentIndex());
+        return this.last == null ? null : this.unlink(this.last);
     }
 
     /**
-     * Remove the player the cursor (index) is currently pointing at.
+     * Remove the player the cursor is currently pointing at, that is, the
+     * player whose turn is next. The turn passes to the player after them.
      * If there are no more players left, null is returned.
      * 
      * @return The current player.
      */
     public Player removeCurrentPlayer() {
-        int currentIndex = this.wrapIndex().getCurrentIndex();
-        this.index -= 1;
-        return this.removePlayer(currentIndex);
+        return this.cursor == null ? null : this.unlink(this.cursor);
+    }
+
+    /**
+     * Get the player whose turn is next without taking the turn.
+     * 
+     * @return The current player, or null if there are no players.
+     */
+    public Player peek() {
+        return this.cursor == null ? null : this.cursor.player;
     }
 
     /**
@@ -170,18 +327,20 @@ public class PlayersManager implements Iterator<Player> {
      * @return The index of the current player.
      */
     public int getCurrentIndex() {
-        return this.index;
+        int index = 0;
+        for (Node node = this.head; node != this.cursor; node = node.next) {
+            index++;
+        }
+        return index;
     }
 
     /**
-     * Wrap the index arround if it exceeds the maximum indexable length.
+     * Wrap the index arround if it exceeds the maximum indexable length. The
+     * ring always wraps around by itself, so this does nothing.
      * 
      * @return The current PlayersManager object.
      */
     public PlayersManager wrapIndex() {
-        if (this.index >= this.playerCount()) {
-            this.index -= this.playerCount();
-        }
         return this;
     }
 
@@ -196,11 +355,35 @@ public class PlayersManager implements Iterator<Player> {
         if (this.isEmpty()) {
             throw new Exception("There are no players.");
         }
-        int currIndex = this.index++;
-        this.wrapIndex();
+        int currIndex = this.getCurrentIndex();
+        this.next();
         return currIndex;
     }
 
+    /**
+     * Call a function with every player, in the order they joined.
+     * 
+     * @param action The function.
+     */
+    public void forEachPlayer(Consumer<Player> action) {
+        Node node = this.head;
+        for (int remaining = this.size; remaining > 0; remaining--) {
+            action.accept(node.player);
+            node = node.next;
+        }
+    }
+
+    /**
+     * Copy the players into a list, in the order they joined.
+     * 
+     * @return The list of players.
+     */
+    public ArrayList<Player> getPlayers() {
+        ArrayList<Player> players = new ArrayList<>(this.size);
+        this.forEachPlayer(players::add);
+        return players;
+    }
+
     /**
      * Give up the list of players and remove the pointer to the list of
      * players in this object to prevent data races.
@@ -208,8 +391,10 @@ public class PlayersManager implements Iterator<Player> {
      * @return The list of players.
      */
     protected ArrayList<Player> absolve() {
-        ArrayList<Player> temp = this.players;
-        this.players = new ArrayList<>();
+        ArrayList<Player> temp = this.getPlayers();
+        this.head = null;
+        this.size = 0;
+        this.lookup = new LongHashMap<>();
         this.init();
         return temp;
     }
@@ -225,12 +410,10 @@ public class PlayersManager implements Iterator<Player> {
     public Player next() {
         if (this.isEmpty()) {
             return null;
-        } else {
-            try {
-                return this.players.get(this.nextIndex());
-            } catch (Exception e) {
-                return null;
-            }
         }
+        this.last = this.cursor;
+        this.cursor = this.cursor.next;
+        this.turns++;
+        return this.last.player;
     }
 }
@@ -0,0 +1,131 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A guess source fed through a queue. Guesses can be handed over from any
+ * thread with {@link #submit(String)}, such as from a network callback, or
+ * read line by line from a stream by a background thread with
+ * {@link #pump(Reader)}. The game's thread parks on the queue until a guess
+ * arrives or its timeout passes.
+ */
+public class QueueGuessSource implements GuessSource, Closeable {
+    /**
+     * Put in the queue once there will be no more guesses. Compared by
+     * identity, so no guess can be mistaken for it.
+     */
+    private static final String END = new String("");
+
+    private static QueueGuessSource console;
+
+    /**
+     * Get the source reading from {@link System#in}, starting it the first
+     * time. The console is never closed by this source.
+     * 
+     * @return The console guess source.
+     */
+    public static synchronized QueueGuessSource console() {
+        if (QueueGuessSource.console == null) {
+            QueueGuessSource.console = new QueueGuessSource().pump(
+                new InputStreamReader(System.in)
+            );
+        }
+        return QueueGuessSource.console;
+    }
+
+    protected LinkedBlockingQueue<String> queue;
+    protected volatile boolean ended;
+
+    /**
+     * Create an empty source.
+     */
+    public QueueGuessSource() {
+        this.queue = new LinkedBlockingQueue<>();
+        this.ended = false;
+    }
+
+    /**
+     * Hand over a guess. This and {@link #end()} hold this source's monitor,
+     * so a guess is either queued before the end of the guesses or refused.
+     * 
+     * @param guess The guess.
+     * @return true if the guess was accepted, false if the source has ended.
+     */
+    public synchronized boolean submit(String guess) {
+        if (this.ended) {
+            return false;
+        }
+        return this.queue.offer(guess);
+    }
+
+    /**
+     * Say that there will be no more guesses. Guesses already submitted are
+     * still given out, after which {@link #nextGuess} returns null at once.
+     */
+    public synchronized void end() {
+        if (!this.ended) {
+            this.ended = true;
+            this.queue.offer(END);
+        }
+    }
+
+    /**
+     * Check whether the source has ended.
+     * 
+     * @return true if there will be no more guesses.
+     */
+    public boolean isEnded() {
+        return this.ended;
+    }
+
+    /**
+     * Start a daemon thread submitting each line of a reader as a guess.
+     * The source ends when the reader does.
+     * 
+     * @param reader The reader, such as the input of a socket.
+     * @return This source.
+     */
+    public QueueGuessSource pump(Reader reader) {
+        BufferedReader lines = reader instanceof BufferedReader ?
+            (BufferedReader) reader : new BufferedReader(reader);
+        Thread thread = new Thread(() -> {
+            try {
+                String line;
+                while ((line = lines.readLine()) != null && this.submit(line)) {
+                    // Keep reading.
+                }
+            } catch (IOException e) {
+                // The stream broke, which is the same as it ending.
+            } finally {
+                this.end();
+            }
+        }, "QueueGuessSource-pump");
+        thread.setDaemon(true);
+        thread.start();
+        return this;
+    }
+
+    @Override
+    public String nextGuess(Song song, Player player, long timeout, TimeUnit unit)
+    throws InterruptedException {
+        String guess = timeout > 0 ?
+            this.queue.poll(timeout, unit) : this.queue.take();
+        if (guess == END) {
+            // Leave the marker for whoever asks next.
+            this.queue.offer(END);
+            return null;
+        }
+        return guess;
+    }
+
+    @Override
+    public void close() {
+        this.end();
+    }
+}
@@ -0,0 +1,45 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import java.io.InterruptedIOException;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A guess source reading one line per guess from a {@link Scanner}. The
+ * scanner blocks until a line is typed, so timeouts are not supported; use
+ * a {@link QueueGuessSource} for those.
+ */
+public class ScannerGuessSource implements GuessSource {
+    protected Scanner scanner;
+
+    /**
+     * Create a source reading from a scanner. The scanner is not closed by
+     * this source.
+     * 
+     * @param scanner The scanner.
+     */
+    public ScannerGuessSource(Scanner scanner) {
+        this.scanner = scanner;
+    }
+
+    /**
+     * Read the next line. The scanner treats an interrupted read as the end
+     * of input, so that is turned back into an interruption here; otherwise
+     * stopping a game would count as a missing guess.
+     */
+    @Override
+    public String nextGuess(Song song, Player player, long timeout, TimeUnit unit)
+    throws InterruptedException {
+        // hasNextLine blocks until there is input, and is only false once
+        // the input has ended.
+        if (this.scanner.hasNextLine()) {
+            return this.scanner.nextLine();
+        }
+        if (this.scanner.ioException() instanceof InterruptedIOException ||
+            Thread.interrupted()
+        ) {
+            throw new InterruptedException("Interrupted while waiting for a guess.");
+        }
+        return null;
+    }
+}
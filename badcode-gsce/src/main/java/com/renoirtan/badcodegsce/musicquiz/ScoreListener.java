@@ -0,0 +1,17 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+/**
+ * Told whenever the score or the number of wrong guesses of a player
+ * changes. See {@link Player#setScoreListener(ScoreListener)}.
+ */
+public interface ScoreListener {
+    /**
+     * Called after the counters of a player have changed, on the thread
+     * running the player's game.
+     * 
+     * @param player The player.
+     * @param scoreDelta How many points the player gained.
+     * @param incorrectDelta How many more wrong guesses the player has made.
+     */
+    void scoreChanged(Player player, int scoreDelta, int incorrectDelta);
+}
@@ -0,0 +1,528 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import com.renoirtan.badcodegsce.musicquiz.Player.PlayerExportBean;
+
+/**
+ * Saves the scores of players to disk without making the game wait.
+ * 
+ * Records are handed over through a bounded queue with
+ * {@link #offer(PlayerExportBean)}, which never blocks. A single writer
+ * thread takes every record waiting in the queue, appends them to a log
+ * file as lines of json and forces them to disk once for the whole batch.
+ * 
+ * Since a player's score is saved many times, the log only grows. Once
+ * enough records have been written, a compactor thread rewrites the log
+ * with only the latest record of each player, see {@link #compact(long)},
+ * while the writer thread keeps appending. Reading the log back with
+ * {@link #readLatest()} gives the same result either way.
+ */
+public class ScoreStore implements Closeable {
+    /**
+     * A stream which ends after a number of bytes.
+     */
+    private static class PrefixInputStream extends FilterInputStream {
+        private long remaining;
+
+        private PrefixInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (this.remaining <= 0) {
+                return -1;
+            }
+            int read = super.read();
+            if (read >= 0) {
+                this.remaining--;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (this.remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(
+                bytes,
+                offset,
+                (int) Math.min(length, this.remaining)
+            );
+            if (read > 0) {
+                this.remaining -= read;
+            }
+            return read;
+        }
+    }
+
+    /**
+     * Put in the queue by {@link #close()} to stop the writer thread.
+     */
+    private static final PlayerExportBean CLOSE = new PlayerExportBean();
+
+    /**
+     * Read the latest record of each player from a log.
+     * 
+     * @param log The log file.
+     * @return The latest record of each player, keyed by their identity (see
+     * {@link PlayerExportBean#getIdentity()}), in the order the players were
+     * first saved. This is empty if the log does not
+     * exist.
+     * @throws IOException If the log could not be read.
+     */
+    public static Map<Long, PlayerExportBean> readLatest(Path log)
+    throws IOException {
+        return ScoreStore.readLatest(log, Long.MAX_VALUE);
+    }
+
+    /**
+     * Read the latest record of each player from the start of a log.
+     * 
+     * @param log The log file.
+     * @param limit How many bytes of the log to read.
+     * @return The latest record of each player, keyed by their identity.
+     * @throws IOException If the log could not be read.
+     */
+    protected static Map<Long, PlayerExportBean> readLatest(Path log, long limit)
+    throws IOException {
+        Gson gson = new Gson();
+        LinkedHashMap<Long, PlayerExportBean> latest = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+            new PrefixInputStream(Files.newInputStream(log), limit),
+            StandardCharsets.UTF_8
+        ))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                PlayerExportBean bean;
+                try {
+                    bean = gson.fromJson(line, PlayerExportBean.class);
+                } catch (JsonParseException e) {
+                    // A line cut short by a crash; everything before it is
+                    // still good.
+                    continue;
+                }
+                if (bean == null) {
+                    // A line holding only "null".
+                    continue;
+                }
+                latest.put(bean.getIdentity(), bean);
+            }
+        } catch (NoSuchFileException e) {
+            // Nothing has been saved yet.
+        }
+        return latest;
+    }
+
+    protected Path log;
+    protected FileChannel channel;
+    protected ArrayBlockingQueue<PlayerExportBean> queue;
+    protected Thread writer;
+    protected Gson gson;
+
+    /**
+     * The largest number of records written in a single batch.
+     */
+    protected int batchSize;
+
+    /**
+     * How many records are written between compactions.
+     */
+    protected int compactEvery;
+    protected int sinceCompaction;
+
+    protected AtomicLong offered;
+    protected AtomicLong dropped;
+
+    /**
+     * The number of records which have been written to disk. Guarded by
+     * this store's monitor.
+     */
+    protected long written;
+    protected volatile IOException failure;
+
+    /**
+     * The error of the last compaction which failed. A failed compaction
+     * leaves the log as it was and is tried again once enough records have
+     * been written, so this never stops the store.
+     */
+    protected volatile IOException compactFailure;
+
+    /**
+     * The thread compacting the log, or null if no compaction is running.
+     * Guarded by this store's monitor.
+     */
+    protected Thread compactor;
+
+    /**
+     * Create a store with space for 4096 waiting records.
+     * 
+     * @param log The log file, which is created if it does not exist.
+     * @throws IOException If the log could not be opened.
+     */
+    public ScoreStore(Path log) throws IOException {
+        this(log, 4096, 10000);
+    }
+
+    /**
+     * Create a store.
+     * 
+     * @param log The log file, which is created if it does not exist.
+     * @param capacity How many records can wait to be written before
+     * {@link #offer(PlayerExportBean)} starts dropping them.
+     * @param compactEvery How many records are written between compactions.
+     * @throws IOException If the log could not be opened.
+     */
+    public ScoreStore(Path log, int capacity, int compactEvery)
+    throws IOException {
+        this.log = log;
+        this.channel = ScoreStore.openForAppend(log);
+        this.queue = new ArrayBlockingQueue<>(Math.max(capacity, 1));
+        this.batchSize = Math.max(capacity, 1);
+        this.compactEvery = Math.max(compactEvery, 1);
+        this.sinceCompaction = 0;
+        this.gson = new Gson();
+        this.offered = new AtomicLong();
+        this.dropped = new AtomicLong();
+        this.written = 0;
+        this.writer = new Thread(this::run, "ScoreStore-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    protected static FileChannel openForAppend(Path log) throws IOException {
+        return FileChannel.open(
+            log,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND
+        );
+    }
+
+    /**
+     * Get the log file.
+     * 
+     * @return The path of the log.
+     */
+    public Path getLog() {
+        return this.log;
+    }
+
+    /**
+     * Queue a record to be saved. This never blocks: if the queue is full or
+     * the store is broken, the record is dropped.
+     * 
+     * @param bean The record.
+     * @return true if the record was queued.
+     */
+    public boolean offer(PlayerExportBean bean) {
+        if (this.failure != null || !this.writer.isAlive()) {
+            this.dropped.incrementAndGet();
+            return false;
+        }
+        if (!this.queue.offer(bean)) {
+            this.dropped.incrementAndGet();
+            return false;
+        }
+        this.offered.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Count the records dropped because the queue was full.
+     * 
+     * @return The number of dropped records.
+     */
+    public long getDropped() {
+        return this.dropped.get();
+    }
+
+    /**
+     * Get the error which stopped the writer thread.
+     * 
+     * @return The error, or null if there was none.
+     */
+    public IOException getFailure() {
+        return this.failure;
+    }
+
+    /**
+     * Get the error of the last compaction which failed.
+     * 
+     * @return The error, or null if no compaction has failed.
+     */
+    public IOException getCompactFailure() {
+        return this.compactFailure;
+    }
+
+    /**
+     * Wait until every record queued so far is on disk.
+     * 
+     * @throws IOException If the records could not be written.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public void flush() throws IOException, InterruptedException {
+        long target = this.offered.get();
+        synchronized (this) {
+            while (this.written < target && this.failure == null &&
+                this.writer.isAlive()
+            ) {
+                this.wait(100);
+            }
+        }
+        if (this.failure != null) {
+            throw this.failure;
+        }
+    }
+
+    /**
+     * Wait until every record queued so far is on disk and read the latest
+     * record of each player.
+     * 
+     * @return The latest record of each player, keyed by their identity.
+     * @throws IOException If the log could not be read or written.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public Map<Long, PlayerExportBean> readLatest()
+    throws IOException, InterruptedException {
+        this.flush();
+        synchronized (this) {
+            return ScoreStore.readLatest(this.log);
+        }
+    }
+
+    /**
+     * The loop of the writer thread.
+     */
+    protected void run() {
+        ArrayList<PlayerExportBean> batch = new ArrayList<>();
+        boolean closing = false;
+        try {
+            while (!closing) {
+                batch.add(this.queue.take());
+                this.queue.drainTo(batch, this.batchSize - 1);
+                int close = batch.indexOf(CLOSE);
+                if (close >= 0) {
+                    batch.subList(close, batch.size()).clear();
+                    closing = true;
+                }
+                this.write(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            this.failure = e;
+        } finally {
+            synchronized (this) {
+                this.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Append a batch of records to the log and force them to disk.
+     * 
+     * @param batch The records.
+     * @throws IOException If the records could not be written.
+     */
+    protected void write(ArrayList<PlayerExportBean> batch) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        StringBuilder lines = new StringBuilder(batch.size() * 80);
+        for (PlayerExportBean bean : batch) {
+            lines.append(this.gson.toJson(bean)).append('\n');
+        }
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(lines.toString());
+        synchronized (this) {
+            while (buffer.hasRemaining()) {
+                this.channel.write(buffer);
+            }
+            this.channel.force(false);
+            this.sinceCompaction += batch.size();
+            if (this.sinceCompaction >= this.compactEvery && this.compactor == null) {
+                long snapshot = this.channel.size();
+                this.sinceCompaction = 0;
+                this.compactor = new Thread(
+                    () -> this.runCompactor(snapshot),
+                    "ScoreStore-compactor"
+                );
+                this.compactor.setDaemon(true);
+                this.compactor.start();
+            }
+            this.written += batch.size();
+            this.notifyAll();
+        }
+    }
+
+    /**
+     * The loop of the compactor thread, which compacts the log once. If the
+     * compaction fails, its error is kept apart from the writer's and the
+     * half written new log is deleted, so that the next compaction starts
+     * afresh.
+     * 
+     * @param snapshot The size of the log when the compaction was started.
+     */
+    protected void runCompactor(long snapshot) {
+        try {
+            this.compact(snapshot);
+        } catch (IOException e) {
+            System.err.println(e);
+            this.compactFailure = e;
+            try {
+                Files.deleteIfExists(this.getCompactLog());
+            } catch (IOException f) {
+                e.addSuppressed(f);
+            }
+        } finally {
+            synchronized (this) {
+                this.compactor = null;
+                this.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Rewrite the log with only the latest record of each player. The first
+     * {@code snapshot} bytes of the log are compacted into a new log next to
+     * the old one without holding this store's monitor, so the writer thread
+     * keeps appending meanwhile. Then, holding the monitor, whatever was
+     * appended since the snapshot is copied over and the new log is moved
+     * over the old one, so a crash leaves either the old or the new log,
+     * never half of one. The log is opened again afterwards whether or not
+     * the move succeeded, so the writer thread can carry on appending.
+     * 
+     * @param snapshot How many bytes of the log to compact, which must end
+     * at the end of a line.
+     * @throws IOException If the log could not be rewritten.
+     */
+    protected void compact(long snapshot) throws IOException {
+        Map<Long, PlayerExportBean> latest = ScoreStore.readLatest(this.log, snapshot);
+        Path temporary = this.getCompactLog();
+        StringBuilder lines = new StringBuilder(latest.size() * 80);
+        for (PlayerExportBean bean : latest.values()) {
+            lines.append(this.gson.toJson(bean)).append('\n');
+        }
+        try (FileChannel out = FileChannel.open(
+            temporary,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING
+        )) {
+            ByteBuffer buffer = StandardCharsets.UTF_8.encode(lines.toString());
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            synchronized (this) {
+                // The log is opened for appending, which cannot be read from.
+                try (FileChannel in = FileChannel.open(this.log)) {
+                    long position = snapshot;
+                    long end = in.size();
+                    while (position < end) {
+                        position += in.transferTo(position, end - position, out);
+                    }
+                }
+                out.force(true);
+                this.channel.close();
+                try {
+                    Files.move(
+                        temporary,
+                        this.log,
+                        StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE
+                    );
+                    ScoreStore.forceDirectory(this.log);
+                } finally {
+                    this.channel = ScoreStore.openForAppend(this.log);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the file the log is compacted into before it replaces the log.
+     * 
+     * @return The path of the compacted log.
+     */
+    protected Path getCompactLog() {
+        return this.log.resolveSibling(this.log.getFileName() + ".compact");
+    }
+
+    /**
+     * Force the directory holding a file to disk, so that a file moved into
+     * it is still there after a crash.
+     * 
+     * @param file The file.
+     * @throws IOException If the directory could not be forced.
+     */
+    protected static void forceDirectory(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(
+            directory,
+            StandardOpenOption.READ
+        )) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Write every queued record, stop the writer thread and close the log.
+     * Records offered after this are dropped.
+     * 
+     * @throws IOException If the records could not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (this.writer.isAlive()) {
+                this.queue.put(CLOSE);
+                this.writer.join();
+            }
+            synchronized (this) {
+                while (this.compactor != null) {
+                    this.wait();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (this) {
+                this.channel.close();
+            }
+        }
+        if (this.failure != null) {
+            throw this.failure;
+        }
+    }
+}
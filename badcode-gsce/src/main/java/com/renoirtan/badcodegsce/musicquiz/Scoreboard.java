@@ -0,0 +1,372 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import com.renoirtan.badcodegsce.musicquiz.Player.PlayerExportBean;
+
+/**
+ * Keeps the counters of many players in parallel {@code int} arrays, one
+ * slot per player, instead of in each {@link Player} object. A player added
+ * to a scoreboard becomes a view: their score and wrong guesses are read
+ * from and written to their slot, and the game plays the same as before.
+ * 
+ * Operations over the whole league (standings, resets, totals) then run as
+ * plain loops over the arrays without touching any player object, which is
+ * much faster for very large leagues. A player keeps their slot until they
+ * are removed, after which the slot is given to the next player added, so
+ * a league whose roster keeps changing does not keep growing.
+ */
+public class Scoreboard {
+    protected Player[] players;
+    protected int[] scores;
+    protected int[] previousIncorrect;
+    protected int[] currentIncorrect;
+
+    /**
+     * How many slots have ever been handed out. Slots below this which hold
+     * no player are free.
+     */
+    protected int size;
+
+    /**
+     * The free slots, used as a stack.
+     */
+    protected int[] free;
+    protected int freeCount;
+
+    /**
+     * Create an empty scoreboard.
+     */
+    public Scoreboard() {
+        this(16);
+    }
+
+    /**
+     * Create an empty scoreboard with space for a number of players.
+     * 
+     * @param capacity How many players the scoreboard should hold without
+     * growing.
+     */
+    public Scoreboard(int capacity) {
+        capacity = Math.max(capacity, 1);
+        this.players = new Player[capacity];
+        this.scores = new int[capacity];
+        this.previousIncorrect = new int[capacity];
+        this.currentIncorrect = new int[capacity];
+        this.size = 0;
+        this.free = new int[0];
+        this.freeCount = 0;
+    }
+
+    /**
+     * Count the players on the scoreboard.
+     * 
+     * @return The number of players.
+     */
+    public int size() {
+        return this.size - this.freeCount;
+    }
+
+    /**
+     * Add a player to the scoreboard. Their current counters are moved into
+     * a free slot (or a new one if none is free) and the player reads and
+     * writes them there from now on.
+     * 
+     * @param player The player.
+     * @return The slot of the player, or their existing slot if they are
+     * already on this scoreboard.
+     * @throws IllegalStateException If the player is on another scoreboard.
+     */
+    public int add(Player player) throws IllegalStateException {
+        if (player.getScoreboard() == this) {
+            return player.getSlot();
+        } else if (player.getScoreboard() != null) {
+            throw new IllegalStateException(
+                "The player is already on another scoreboard."
+            );
+        }
+        int slot;
+        if (this.freeCount > 0) {
+            slot = this.free[--this.freeCount];
+        } else {
+            if (this.size == this.players.length) {
+                int capacity = this.players.length * 2;
+                this.players = Arrays.copyOf(this.players, capacity);
+                this.scores = Arrays.copyOf(this.scores, capacity);
+                this.previousIncorrect = Arrays.copyOf(this.previousIncorrect, capacity);
+                this.currentIncorrect = Arrays.copyOf(this.currentIncorrect, capacity);
+            }
+            slot = this.size++;
+        }
+        this.players[slot] = player;
+        player.attach(this, slot);
+        return slot;
+    }
+
+    /**
+     * Remove a player from the scoreboard. The player gets their counters
+     * back and stops being a view, and their slot is freed for the next
+     * player added.
+     * 
+     * @param player The player.
+     * @return true if the player was on this scoreboard.
+     */
+    public boolean remove(Player player) {
+        if (player.getScoreboard() != this) {
+            return false;
+        }
+        int slot = player.getSlot();
+        player.detach();
+        this.players[slot] = null;
+        // Free slots hold zeros, so the loops over the arrays can include
+        // them without skewing totals or counts.
+        this.scores[slot] = 0;
+        this.previousIncorrect[slot] = 0;
+        this.currentIncorrect[slot] = 0;
+        if (this.freeCount == this.free.length) {
+            this.free = Arrays.copyOf(this.free, Math.max(4, this.free.length * 2));
+        }
+        this.free[this.freeCount++] = slot;
+        return true;
+    }
+
+    /**
+     * Add every player of a manager to the scoreboard.
+     * 
+     * @param manager The manager.
+     * @return This scoreboard.
+     */
+    public Scoreboard addAll(PlayersManager manager) {
+        manager.forEachPlayer(this::add);
+        return this;
+    }
+
+    /**
+     * Get the player in a slot.
+     * 
+     * @param slot The slot.
+     * @return The player, or null if the slot is free.
+     */
+    public Player getPlayer(int slot) {
+        this.checkSlot(slot);
+        return this.players[slot];
+    }
+
+    /**
+     * Get the score in a slot.
+     * 
+     * @param slot The slot.
+     * @return The score.
+     */
+    public int getScore(int slot) {
+        this.checkSlot(slot);
+        return this.scores[slot];
+    }
+
+    /**
+     * Get the total number of wrong guesses in a slot.
+     * 
+     * @param slot The slot.
+     * @return The number of wrong guesses.
+     */
+    public int getTotalIncorrect(int slot) {
+        this.checkSlot(slot);
+        return this.previousIncorrect[slot] + this.currentIncorrect[slot];
+    }
+
+    private void checkSlot(int slot) {
+        if (slot < 0 || slot >= this.size) {
+            throw new IndexOutOfBoundsException(slot);
+        }
+    }
+
+    /**
+     * Add up the scores of every player.
+     * 
+     * @return The total score.
+     */
+    public long totalScore() {
+        long total = 0;
+        int[] scores = this.scores;
+        for (int slot = 0; slot < this.size; slot++) {
+            total += scores[slot];
+        }
+        return total;
+    }
+
+    /**
+     * Get the highest score.
+     * 
+     * @return The highest score, or 0 if there are no players.
+     */
+    public int maxScore() {
+        int max = 0;
+        int[] scores = this.scores;
+        for (int slot = 0; slot < this.size; slot++) {
+            max = Math.max(max, scores[slot]);
+        }
+        return max;
+    }
+
+    /**
+     * Count the players who have used up their chances on their current
+     * song, see {@link Player#getAllowedChances()}.
+     * 
+     * @return The number of players who are out.
+     */
+    public int countEliminated() {
+        int count = 0;
+        int allowed = Player.getAllowedChances();
+        int[] current = this.currentIncorrect;
+        for (int slot = 0; slot < this.size; slot++) {
+            count += current[slot] >= allowed ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * Move every player's wrong guesses on their current song into their
+     * previous wrong guesses, as if every song had been finished.
+     * 
+     * @return This scoreboard.
+     */
+    public Scoreboard flushAllIncorrect() {
+        int[] previous = this.previousIncorrect;
+        int[] current = this.currentIncorrect;
+        for (int slot = 0; slot < this.size; slot++) {
+            previous[slot] += current[slot];
+            current[slot] = 0;
+        }
+        return this;
+    }
+
+    /**
+     * Reset the score and wrong guesses of every player to 0, such as at the
+     * start of a new season. The players stay on the scoreboard.
+     * 
+     * @return This scoreboard.
+     */
+    public Scoreboard resetAll() {
+        Arrays.fill(this.scores, 0, this.size, 0);
+        Arrays.fill(this.previousIncorrect, 0, this.size, 0);
+        Arrays.fill(this.currentIncorrect, 0, this.size, 0);
+        return this;
+    }
+
+    /**
+     * Remove every player from the scoreboard. Each player gets their
+     * counters back and stops being a view.
+     * 
+     * @return This scoreboard.
+     */
+    public Scoreboard clear() {
+        for (int slot = 0; slot < this.size; slot++) {
+            if (this.players[slot] != null) {
+                this.players[slot].detach();
+                this.players[slot] = null;
+            }
+        }
+        Arrays.fill(this.scores, 0, this.size, 0);
+        Arrays.fill(this.previousIncorrect, 0, this.size, 0);
+        Arrays.fill(this.currentIncorrect, 0, this.size, 0);
+        this.size = 0;
+        this.freeCount = 0;
+        return this;
+    }
+
+    /**
+     * Check whether one slot ranks above another: a higher score first, then
+     * fewer wrong guesses.
+     */
+    private boolean ranksAbove(int slot, int other) {
+        if (this.scores[slot] != this.scores[other]) {
+            return this.scores[slot] > this.scores[other];
+        }
+        return this.previousIncorrect[slot] + this.currentIncorrect[slot] <
+            this.previousIncorrect[other] + this.currentIncorrect[other];
+    }
+
+    /**
+     * Get the slots of every player from first to last place: a higher
+     * score ranks first, then fewer wrong guesses, then the earlier slot.
+     * Slots are sorted as plain ints, so no objects are created per player.
+     * Free slots are left out.
+     * 
+     * @return The slots in order of standing.
+     */
+    public int[] standings() {
+        int count = this.size();
+        int[] order = new int[count];
+        int next = 0;
+        for (int slot = 0; slot < this.size; slot++) {
+            if (this.players[slot] != null) {
+                order[next++] = slot;
+            }
+        }
+        // A bottom-up merge sort, which is stable and so keeps earlier slots
+        // first when players are tied.
+        int[] buffer = new int[count];
+        for (int width = 1; width < count; width *= 2) {
+            for (int from = 0; from < count; from += 2 * width) {
+                int middle = Math.min(from + width, count);
+                int to = Math.min(from + 2 * width, count);
+                int left = from;
+                int right = middle;
+                for (int out = from; out < to; out++) {
+                    if (right >= to || (left < middle &&
+                        !this.ranksAbove(order[right], order[left]))
+                    ) {
+                        buffer[out] = order[left++];
+                    } else {
+                        buffer[out] = order[right++];
+                    }
+                }
+            }
+            int[] temp = order;
+            order = buffer;
+            buffer = temp;
+        }
+        return order;
+    }
+
+    /**
+     * Export every player in slot order.
+     * 
+     * @return A bean for each player.
+     */
+    public ArrayList<PlayerExportBean> export() {
+        ArrayList<PlayerExportBean> beans = new ArrayList<>(this.size());
+        for (int slot = 0; slot < this.size; slot++) {
+            if (this.players[slot] != null) {
+                beans.add(this.exportSlot(slot));
+            }
+        }
+        return beans;
+    }
+
+    /**
+     * Export every player from first to last place, see {@link #standings()}.
+     * 
+     * @return A bean for each player.
+     */
+    public ArrayList<PlayerExportBean> exportStandings() {
+        int[] order = this.standings();
+        ArrayList<PlayerExportBean> beans = new ArrayList<>(order.length);
+        for (int slot : order) {
+            beans.add(this.exportSlot(slot));
+        }
+        return beans;
+    }
+
+    private PlayerExportBean exportSlot(int slot) {
+        Player player = this.players[slot];
+        return new PlayerExportBean(
+            player.getUsername(),
+            player.getAuthId(),
+            player.getWideId(),
+            this.scores[slot],
+            this.previousIncorrect[slot] + this.currentIncorrect[slot]
+        );
+    }
+}
@@ -0,0 +1,41 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A guess source giving out a fixed list of guesses, for tests and replays.
+ * Once the guesses run out, every guess is null.
+ */
+public class ScriptedGuessSource implements GuessSource {
+    protected Iterator<String> guesses;
+
+    /**
+     * Create a source giving out guesses in order.
+     * 
+     * @param guesses The guesses.
+     */
+    public ScriptedGuessSource(Iterable<String> guesses) {
+        this.guesses = guesses.iterator();
+    }
+
+    /**
+     * Create a source giving out guesses in order.
+     * 
+     * @param guesses The guesses.
+     */
+    public ScriptedGuessSource(String... guesses) {
+        this(Arrays.asList(guesses));
+    }
+
+    @Override
+    public synchronized String nextGuess(
+        Song song,
+        Player player,
+        long timeout,
+        TimeUnit unit
+    ) {
+        return this.guesses.hasNext() ? this.guesses.next() : null;
+    }
+}
@@ -4,11 +4,12 @@ import java.io.PrintStream;
 import java.io.Reader;
 import java.io.Serializable;
 import java.lang.Character;
-import java.lang.Integer;
 import java.lang.System;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Objects;
 import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
@@ -37,6 +38,54 @@ public class Song implements Serializable {
         return new Gson().fromJson(reader, listOfImported);
     }
 
+    /**
+     * Get a list of songs from a json file, making songs share equal names
+     * and artists through a pool.
+     * 
+     * @param reader The json file input stream.
+     * @param pool The pool of canonical strings.
+     * @return The list of songs.
+     * @throws Exception If the json deserialiser could not read the file.
+     */
+    public static ArrayList<Song> importSongsFromJson(
+        Reader reader,
+        StringPool pool
+    ) throws Exception {
+        ArrayList<Song> songs = Song.importSongsFromJson(reader);
+        for (Song song : songs) {
+            song.internStrings(pool);
+        }
+        return songs;
+    }
+
+    /**
+     * Read songs lazily from a json file, making songs share equal names and
+     * artists through a pool.
+     * 
+     * @param reader The json file input stream.
+     * @param pool The pool of canonical strings.
+     * @return An iterator over the songs in the file.
+     */
+    public static SongJsonIterator streamSongsFromJson(
+        Reader reader,
+        StringPool pool
+    ) {
+        return new SongJsonIterator(reader, pool);
+    }
+
+    /**
+     * Read songs lazily from a json file. Unlike
+     * {@link #importSongsFromJson(Reader)}, the songs are never collected
+     * into a list, so the iterator can be given straight to a
+     * {@link SongsManager}.
+     * 
+     * @param reader The json file input stream.
+     * @return An iterator over the songs in the file.
+     */
+    public static SongJsonIterator streamSongsFromJson(Reader reader) {
+        return new SongJsonIterator(reader);
+    }
+
     /**
      * The name of the song, cannot be empty.
      */
@@ -47,6 +96,23 @@ public class Song implements Serializable {
      */
     protected String artist;
 
+    /**
+     * The cached result of {@link #formatFirstLetterOfEachWordInName()}.
+     * This is not serialised.
+     */
+    protected transient String initials;
+
+    /**
+     * The cached result of {@link #getPrompt()}. This is not serialised.
+     */
+    protected transient String prompt;
+
+    /**
+     * The cached result of {@link #getNormalizedName()}. This is not
+     * serialised.
+     */
+    protected transient String normalizedName;
+
     /**
      * Default constructor for a song. This creates a `Song` whose name and
      * artist name are both "Unknown".
@@ -66,19 +132,35 @@ public class Song implements Serializable {
         this.artist = artist;
     }
 
+    /**
+     * Replace the name and artist of this song with their canonical
+     * instances from a pool.
+     * 
+     * @param pool The pool of canonical strings.
+     * @return This song.
+     */
+    protected Song internStrings(StringPool pool) {
+        this.name = pool.intern(this.name);
+        this.artist = pool.intern(this.artist);
+        return this;
+    }
+
     @Override
     public boolean equals(Object o) {
-        if (this.getClass() != o.getClass()) {
+        if (this == o) {
+            return true;
+        } else if (o == null || this.getClass() != o.getClass()) {
             return false;
         } else {
             Song other = (Song) o;
-            return this.name == other.name && this.artist == other.artist;
+            return Objects.equals(this.name, other.name) &&
+                Objects.equals(this.artist, other.artist);
         }
     }
 
     @Override
     public int hashCode() {
-        return Integer.hashCode(this.name.hashCode() + this.artist.hashCode());
+        return 31 * Objects.hashCode(this.name) + Objects.hashCode(this.artist);
     }
 
     @Override
@@ -100,14 +182,28 @@ public class Song implements Serializable {
     }
 
     /**
-     * Check whether the name guessed by a player matches the name of the song.
+     * Check whether the name guessed by a player is exactly the same as the
+     * name of the song. Games can be more lenient, see
+     * {@link Game#setGuessMatcher(GuessMatcher)}.
      * 
      * @param guessedName The name guessed by the player.
      * @return A boolean value determining whether the player has guessed the
      * name of the song correctly.
      */
     public boolean checkGuess(String guessedName) {
-        return this.name.equals(guessedName);
+        return this.checkGuess(guessedName, GuessMatcher.EXACT);
+    }
+
+    /**
+     * Check whether the name guessed by a player matches the name of the song
+     * using a specific matcher.
+     * 
+     * @param guessedName The name guessed by the player.
+     * @param matcher How the guess is compared with the name.
+     * @return Whether the player has guessed the name of the song correctly.
+     */
+    public boolean checkGuess(String guessedName, GuessMatcher matcher) {
+        return matcher.matches(this, guessedName);
     }
 
     /**
@@ -119,6 +215,19 @@ public class Song implements Serializable {
         return this.name;
     }
 
+    /**
+     * Get the name of the song in lower case without anything that is not a
+     * letter or a digit. This is only computed the first time it is needed.
+     * 
+     * @return The normalised name of the song.
+     */
+    public String getNormalizedName() {
+        if (this.normalizedName == null) {
+            this.normalizedName = GuessMatcher.normalize(this.name);
+        }
+        return this.normalizedName;
+    }
+
     /**
      * Get the name of the artist of the song.
      * 
@@ -171,40 +280,54 @@ public class Song implements Serializable {
 
     /**
      * Get the first letter of each word in the song's name as a
-     * space-separated string.
+     * space-separated string. The string is only built the first time this
+     * method is called.
      * 
      * @return The sequence of first letters.
      * @throws Exception If an unexpected exception occurs.
      */
     public String formatFirstLetterOfEachWordInName() throws Exception {
-        String result = "";
-        ArrayList<Character> letters = this.firstLetterOfEachWordInName();
-        for (Character letter : letters) {
-            if (result != "") {
-                result += " ";
+        if (this.initials == null) {
+            StringBuilder result = new StringBuilder();
+            boolean startOfWord = true;
+            for (int index = 0; index < this.name.length(); index++) {
+                char letter = this.name.charAt(index);
+                if (letter == ' ') {
+                    startOfWord = true;
+                } else if (startOfWord) {
+                    if (result.length() != 0) {
+                        result.append(' ');
+                    }
+                    result.append(letter);
+                    startOfWord = false;
+                }
             }
-            result += letter;
+            this.initials = result.toString();
         }
-        return result;
+        return this.initials;
     }
 
     /**
-     * Get a hint for this song as a string.
+     * Get a hint for this song as a string. The hint is only built the first
+     * time this method is called.
      * 
      * @return The hint for this song.
      * @throws Exception Any unhandled exception.
      * @throws IndexOutOfBoundsException Any unhandled exception.
      */
     public String getPrompt() throws Exception, IndexOutOfBoundsException {
-        return String.format(
-            " - First letter of each word in the song: %s\n - Artist: %s",
-            this.formatFirstLetterOfEachWordInName(),
-            this.getArtist()
-        );
+        if (this.prompt == null) {
+            this.prompt = " - First letter of each word in the song: " +
+                this.formatFirstLetterOfEachWordInName() +
+                "\n - Artist: " +
+                this.getArtist();
+        }
+        return this.prompt;
     }
 
     /**
-     * Ask the player to guess the name of this song.
+     * Ask the player to guess the name of this song, reading the guess from
+     * the console.
      * 
      * @param player The player to ask.
      * 
@@ -213,10 +336,7 @@ public class Song implements Serializable {
      * @throws Exception If something wrong happens.
      */
     public boolean quizPlayerOnce(Player player) throws Exception {
-        Scanner scanner = new Scanner(System.in);
-        boolean result = this.quizPlayerOnce(System.out, scanner, player);
-        scanner.close();
-        return result;
+        return this.quizPlayerOnce(System.out, GuessSource.console(), player);
     }
 
     /**
@@ -237,31 +357,117 @@ public class Song implements Serializable {
         Scanner scanner,
         Player player
     ) throws Exception {
-        if (player.chancesLeft() == Player.getAllowedChances()) {
-            out.println(String.format(
-                "Player: %s\nGuess the name of the song:\n%s\n",
-                player.getUsername(),
-                this.getPrompt()
-            ));
+        return this.quizPlayerOnce(out, new ScannerGuessSource(scanner), player);
+    }
+
+    /**
+     * Ask the player to guess the song once, waiting as long as it takes.
+     * 
+     * @param out An output stream.
+     * @param guesses Where the guess comes from.
+     * @param player The player that has to guess the song.
+     * 
+     * @return Whether the player can continued to be questioned.
+     * 
+     * @throws Exception If something wrong happens.
+     */
+    public boolean quizPlayerOnce(
+        PrintStream out,
+        GuessSource guesses,
+        Player player
+    ) throws Exception {
+        return this.quizPlayerOnce(out, guesses, player, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Ask the player to guess the song once. If no guess arrives in time (or
+     * there are no more guesses), the guess counts as wrong.
+     * 
+     * @param out An output stream, or null to print nothing.
+     * @param guesses Where the guess comes from.
+     * @param player The player that has to guess the song.
+     * @param timeout How long to wait for the guess, or 0 to wait forever.
+     * @param unit The unit of the timeout.
+     * 
+     * @return Whether the player can continued to be questioned.
+     * 
+     * @throws Exception If something wrong happens.
+     */
+    public boolean quizPlayerOnce(
+        PrintStream out,
+        GuessSource guesses,
+        Player player,
+        long timeout,
+        TimeUnit unit
+    ) throws Exception {
+        return this.quizPlayerOnce(
+            out == null ? null : new ConsoleEventSink(out),
+            guesses,
+            player,
+            GuessMatcher.EXACT,
+            timeout,
+            unit
+        );
+    }
+
+    /**
+     * Ask the player to guess the song once, sending what happens to an
+     * event sink. If no guess arrives in time (or there are no more
+     * guesses), the guess counts as wrong.
+     * 
+     * @param events Where the events go, or null to create no events.
+     * @param guesses Where the guess comes from.
+     * @param player The player that has to guess the song.
+     * @param matcher How the guess is compared with the name of the song.
+     * @param timeout How long to wait for the guess, or 0 to wait forever.
+     * @param unit The unit of the timeout.
+     * 
+     * @return Whether the player can continued to be questioned.
+     * 
+     * @throws Exception If something wrong happens.
+     */
+    public boolean quizPlayerOnce(
+        GameEventSink events,
+        GuessSource guesses,
+        Player player,
+        GuessMatcher matcher,
+        long timeout,
+        TimeUnit unit
+    ) throws Exception {
+        if (events != null) {
+            if (player.chancesLeft() == Player.getAllowedChances()) {
+                events.publish(GameEvent.prompted(player, this));
+            }
+            events.publish(new GameEvent(GameEvent.Type.GUESS_REQUESTED, player, this));
         }
-        out.println(String.format("Chances left: %d", player.chancesLeft()));
-        out.print("Guess> ");
-        // Wait for user input
-        while (!scanner.hasNextLine()) {}
-        String guess = scanner.nextLine().trim();
-        if (this.checkGuess(guess)) {
-            out.println("You guessed correctly!");
-            return player.guess(true);
-        } else {
-            out.println("Your guess was wrong.");
-            return !player.guess(false);
+        GameMetrics metrics = GameMetrics.current();
+        long start = metrics == null ? 0 : System.nanoTime();
+        String guess = guesses.nextGuess(this, player, timeout, unit);
+        if (guess == null && Thread.interrupted()) {
+            // The game is being stopped, which must not cost the player.
+            throw new InterruptedException("Interrupted while waiting for a guess.");
         }
+        boolean correct = guess != null && this.checkGuess(guess.trim(), matcher);
+        if (metrics != null) {
+            metrics.recordGuess(System.nanoTime() - start, guess != null, correct);
+        }
+        if (events != null) {
+            events.publish(new GameEvent(
+                guess == null ? GameEvent.Type.GUESS_MISSING :
+                    correct ? GameEvent.Type.GUESS_CORRECT :
+                    GameEvent.Type.GUESS_WRONG,
+                player,
+                this,
+                guess
+            ));
+        }
+        return correct ? player.guess(true) : !player.guess(false);
     }
 
     /**
      * Ask a player to guess the name of this song. However, if they get the
      * name wrong, they will be asked again until they either obtain a correct
-     * guess or run out of lives.
+     * guess or run out of lives. Guesses are read from the console.
      * 
      * @param player The player to be asked to guess the name of this song.
      * 
@@ -271,10 +477,7 @@ public class Song implements Serializable {
      * @throws Exception If something wrong happens.
      */
     public boolean quizPlayer(Player player) throws Exception {
-        Scanner scanner = new Scanner(System.in);
-        boolean result = this.quizPlayer(System.out, scanner, player);
-        scanner.close();
-        return result;
+        return this.quizPlayer(System.out, GuessSource.console(), player);
     }
 
     /**
@@ -296,7 +499,90 @@ public class Song implements Serializable {
         Scanner scanner,
         Player player
     ) throws Exception {
-        while (this.quizPlayerOnce(out, scanner, player)) {}
+        return this.quizPlayer(out, new ScannerGuessSource(scanner), player);
+    }
+
+    /**
+     * Ask a player to guess the name of this song until they either guess
+     * correctly or run out of lives, waiting as long as it takes for each
+     * guess.
+     * 
+     * @param out The output stream.
+     * @param guesses Where the guesses come from.
+     * @param player The player to be asked to guess the name of this song.
+     * 
+     * @return Whether the player has run out of lives and therefore the game
+     * is over.
+     * 
+     * @throws Exception If something wrong happens.
+     */
+    public boolean quizPlayer(
+        PrintStream out,
+        GuessSource guesses,
+        Player player
+    ) throws Exception {
+        return this.quizPlayer(out, guesses, player, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Ask a player to guess the name of this song until they either guess
+     * correctly or run out of lives. A guess which does not arrive in time
+     * counts as wrong.
+     * 
+     * @param out The output stream.
+     * @param guesses Where the guesses come from.
+     * @param player The player to be asked to guess the name of this song.
+     * @param timeout How long to wait for each guess, or 0 to wait forever.
+     * @param unit The unit of the timeout.
+     * 
+     * @return Whether the player has run out of lives and therefore the game
+     * is over.
+     * 
+     * @throws Exception If something wrong happens.
+     */
+    public boolean quizPlayer(
+        PrintStream out,
+        GuessSource guesses,
+        Player player,
+        long timeout,
+        TimeUnit unit
+    ) throws Exception {
+        return this.quizPlayer(
+            out == null ? null : new ConsoleEventSink(out),
+            guesses,
+            player,
+            GuessMatcher.EXACT,
+            timeout,
+            unit
+        );
+    }
+
+    /**
+     * Ask a player to guess the name of this song until they either guess
+     * correctly or run out of lives, sending what happens to an event sink.
+     * A guess which does not arrive in time counts as wrong.
+     * 
+     * @param events Where the events go, or null to create no events.
+     * @param guesses Where the guesses come from.
+     * @param player The player to be asked to guess the name of this song.
+     * @param matcher How guesses are compared with the name of the song.
+     * @param timeout How long to wait for each guess, or 0 to wait forever.
+     * @param unit The unit of the timeout.
+     * 
+     * @return Whether the player has run out of lives and therefore the game
+     * is over.
+     * 
+     * @throws Exception If something wrong happens.
+     */
+    public boolean quizPlayer(
+        GameEventSink events,
+        GuessSource guesses,
+        Player player,
+        GuessMatcher matcher,
+        long timeout,
+        TimeUnit unit
+    ) throws Exception {
+        while (this.quizPlayerOnce(events, guesses, player, matcher, timeout, unit)) {}
         return player.gameOver();
     }
 }
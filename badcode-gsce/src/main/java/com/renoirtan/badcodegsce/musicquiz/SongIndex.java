@@ -0,0 +1,251 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A reverse index from guesses to the songs they would match. Songs are
+ * stored in a trie keyed by their normalised names (see
+ * {@link Song#getNormalizedName()}), so finding the songs that have a name
+ * or start with a prefix only depends on the length of the guess, not on how
+ * many songs are in the index.
+ */
+public class SongIndex {
+    /**
+     * A node in the trie. The children are stored in a small array sorted
+     * by their letters.
+     */
+    protected static class Node {
+        protected char[] letters = new char[0];
+        protected Node[] children = new Node[0];
+
+        /**
+         * The songs whose normalised name ends at this node.
+         */
+        protected ArrayList<Song> songs;
+
+        /**
+         * The number of songs in this node and all of its children.
+         */
+        protected int size;
+
+        /**
+         * Get the child for a letter.
+         * 
+         * @param letter The letter.
+         * @return The child, or null if there is none.
+         */
+        protected Node child(char letter) {
+            int position = Arrays.binarySearch(this.letters, letter);
+            return position < 0 ? null : this.children[position];
+        }
+
+        /**
+         * Get the child for a letter, creating it if it does not exist yet.
+         * 
+         * @param letter The letter.
+         * @return The child.
+         */
+        protected Node childOrNew(char letter) {
+            int position = Arrays.binarySearch(this.letters, letter);
+            if (position >= 0) {
+                return this.children[position];
+            }
+            position = -position - 1;
+            int length = this.letters.length;
+            char[] letters = new char[length + 1];
+            Node[] children = new Node[length + 1];
+            System.arraycopy(this.letters, 0, letters, 0, position);
+            System.arraycopy(this.children, 0, children, 0, position);
+            System.arraycopy(this.letters, position, letters, position + 1, length - position);
+            System.arraycopy(this.children, position, children, position + 1, length - position);
+            letters[position] = letter;
+            children[position] = new Node();
+            this.letters = letters;
+            this.children = children;
+            return children[position];
+        }
+
+        /**
+         * Remove the child for a letter.
+         * 
+         * @param letter The letter.
+         */
+        protected void removeChild(char letter) {
+            int position = Arrays.binarySearch(this.letters, letter);
+            if (position < 0) {
+                return;
+            }
+            int length = this.letters.length;
+            char[] letters = new char[length - 1];
+            Node[] children = new Node[length - 1];
+            System.arraycopy(this.letters, 0, letters, 0, position);
+            System.arraycopy(this.children, 0, children, 0, position);
+            System.arraycopy(this.letters, position + 1, letters, position, length - position - 1);
+            System.arraycopy(this.children, position + 1, children, position, length - position - 1);
+            this.letters = letters;
+            this.children = children;
+        }
+    }
+
+    protected Node root;
+
+    /**
+     * Create an empty index.
+     */
+    public SongIndex() {
+        this.root = new Node();
+    }
+
+    /**
+     * Count how many songs are in the index.
+     * 
+     * @return The number of songs.
+     */
+    public int size() {
+        return this.root.size;
+    }
+
+    /**
+     * Remove every song from the index.
+     * 
+     * @return This index.
+     */
+    public SongIndex clear() {
+        this.root = new Node();
+        return this;
+    }
+
+    /**
+     * Find the node for a normalised key.
+     * 
+     * @param key The normalised key.
+     * @return The node, or null if no song has that key as a prefix.
+     */
+    protected Node find(String key) {
+        Node node = this.root;
+        for (int index = 0; index < key.length() && node != null; index++) {
+            node = node.child(key.charAt(index));
+        }
+        return node;
+    }
+
+    /**
+     * Add a song to the index.
+     * 
+     * @param song The song.
+     * @return This index.
+     */
+    public SongIndex add(Song song) {
+        String key = song.getNormalizedName();
+        Node node = this.root;
+        node.size++;
+        for (int index = 0; index < key.length(); index++) {
+            node = node.childOrNew(key.charAt(index));
+            node.size++;
+        }
+        if (node.songs == null) {
+            node.songs = new ArrayList<>(1);
+        }
+        node.songs.add(song);
+        return this;
+    }
+
+    /**
+     * Remove a song from the index. Nodes which no longer lead to any songs
+     * are removed from the trie.
+     * 
+     * @param song The song.
+     * @return Whether the song was in the index.
+     */
+    public boolean remove(Song song) {
+        String key = song.getNormalizedName();
+        Node node = this.find(key);
+        if (node == null || node.songs == null || !node.songs.remove(song)) {
+            return false;
+        }
+        if (node.songs.isEmpty()) {
+            node.songs = null;
+        }
+        node = this.root;
+        node.size--;
+        for (int index = 0; index < key.length(); index++) {
+            Node child = node.child(key.charAt(index));
+            if (--child.size == 0) {
+                node.removeChild(key.charAt(index));
+                break;
+            }
+            node = child;
+        }
+        return true;
+    }
+
+    /**
+     * Find the songs whose name matches a guess once both are normalised.
+     * 
+     * @param guess The guess.
+     * @return The matching songs. The list is empty if there are none.
+     */
+    public List<Song> lookup(String guess) {
+        Node node = this.find(GuessMatcher.normalize(guess));
+        if (node == null || node.songs == null) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(node.songs);
+    }
+
+    /**
+     * Count the songs whose normalised name starts with a guess once it is
+     * normalised.
+     * 
+     * @param prefix The start of a guess.
+     * @return The number of matching songs.
+     */
+    public int countPrefix(String prefix) {
+        Node node = this.find(GuessMatcher.normalize(prefix));
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * Find the songs whose normalised name starts with a guess once it is
+     * normalised. Finding where the songs are only depends on the length of
+     * the prefix, and collecting them is limited by a maximum.
+     * 
+     * @param prefix The start of a guess.
+     * @param limit The maximum number of songs to return.
+     * @return The matching songs.
+     */
+    public List<Song> lookupPrefix(String prefix, int limit) {
+        ArrayList<Song> songs = new ArrayList<>();
+        Node node = this.find(GuessMatcher.normalize(prefix));
+        if (node != null) {
+            SongIndex.collect(node, songs, limit);
+        }
+        return songs;
+    }
+
+    /**
+     * Collect the songs in a node and its children.
+     * 
+     * @param node The node.
+     * @param songs Where to put the songs.
+     * @param limit The maximum number of songs to collect.
+     */
+    private static void collect(Node node, List<Song> songs, int limit) {
+        if (node.songs != null) {
+            for (Song song : node.songs) {
+                if (songs.size() >= limit) {
+                    return;
+                }
+                songs.add(song);
+            }
+        }
+        for (Node child : node.children) {
+            if (songs.size() >= limit) {
+                return;
+            }
+            SongIndex.collect(child, songs, limit);
+        }
+    }
+}
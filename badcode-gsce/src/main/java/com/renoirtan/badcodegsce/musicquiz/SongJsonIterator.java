@@ -0,0 +1,86 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
+
+import com.google.gson.stream.JsonToken;
+
+/**
+ * An iterator that reads songs one at a time from a json array of songs.
+ * Only the song currently being read is held in memory, so it can be passed
+ * to {@link SongsManager#SongsManager(Iterator, java.util.Random)} to load
+ * catalogs that are too large to deserialise into a list first.
+ */
+public class SongJsonIterator extends JsonArrayIterator<Song> {
+    /**
+     * The pool that names and artists are passed through, or null.
+     */
+    protected StringPool pool;
+
+    /**
+     * Create an iterator over the songs in a json array.
+     * 
+     * @param reader The json file input stream.
+     */
+    public SongJsonIterator(Reader reader) {
+        this(reader, null);
+    }
+
+    /**
+     * Create an iterator over the songs in a json array, making songs share
+     * equal names and artists through a pool.
+     * 
+     * @param reader The json file input stream.
+     * @param pool The pool of canonical strings, or null to not use one.
+     */
+    public SongJsonIterator(Reader reader, StringPool pool) {
+        super(reader);
+        this.pool = pool;
+    }
+
+    /**
+     * Read a single song object from the json reader. Unknown fields are
+     * skipped and missing fields are "Unknown", like {@link Song#Song()}.
+     * 
+     * @return The song.
+     * @throws IOException If the song object could not be read.
+     */
+    @Override
+    protected Song readElement() throws IOException {
+        String name = "Unknown";
+        String artist = "Unknown";
+        this.reader.beginObject();
+        while (this.reader.hasNext()) {
+            String field = this.reader.nextName();
+            if (field.equals("name")) {
+                name = this.readString();
+            } else if (field.equals("artist")) {
+                artist = this.readString();
+            } else {
+                this.reader.skipValue();
+            }
+        }
+        this.reader.endObject();
+        Song song = new Song(name, artist);
+        if (this.pool != null) {
+            song.internStrings(this.pool);
+        }
+        return song;
+    }
+
+    /**
+     * Read a string value, which may be null.
+     * 
+     * @return The string or null.
+     * @throws IOException If the value could not be read.
+     */
+    private String readString() throws IOException {
+        if (this.reader.peek() == JsonToken.NULL) {
+            this.reader.nextNull();
+            return null;
+        } else {
+            return this.reader.nextString();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.renoirtan.badcodegsce.musicquiz;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Random;
 
@@ -14,6 +15,32 @@ import java.util.Random;
 public class SongsManager implements Iterator<Song> {
     protected ArrayList<Song> songs;
     protected Random rng;
+
+    /**
+     * A set containing the same songs as {@link #songs}, used to check for
+     * duplicates in O(1) instead of scanning the whole list.
+     */
+    protected HashSet<Song> lookup;
+
+    /**
+     * Whether songs are removed by swapping them with the last song in the
+     * list instead of shifting every song after them. This makes removing a
+     * song O(1), but the order of the remaining songs is not preserved.
+     */
+    protected boolean swapRemove;
+
+    /**
+     * An optional reverse index from guesses to the songs in this manager.
+     * It is null unless {@link #enableGuessIndex()} has been called.
+     */
+    protected SongIndex guessIndex;
+
+    /**
+     * The weight of each song, in the same order as {@link #songs}. It is
+     * null unless weights are used, in which case songs are picked with
+     * probabilities proportional to their weights.
+     */
+    protected WeightedSampler weights;
     
     /**
      * Initialise the current {@link SongsManager} object with predetermined
@@ -33,7 +60,12 @@ public class SongsManager implements Iterator<Song> {
      */
     protected SongsManager reset() {
         this.songs = new ArrayList<>();
+        this.lookup = new HashSet<>();
         this.rng = null;
+        if (this.guessIndex != null) {
+            this.guessIndex.clear();
+        }
+        this.weights = null;
         return this;
     }
 
@@ -51,6 +83,7 @@ public class SongsManager implements Iterator<Song> {
      */
     public SongsManager(Random rng) {
         this.songs = new ArrayList<>();
+        this.lookup = new HashSet<>();
         this.rng = rng;
         this.init();
     }
@@ -71,7 +104,11 @@ public class SongsManager implements Iterator<Song> {
      * @param rng The random number generator.
      */
     public SongsManager(Collection<Song> songs, Random rng) {
-        this(songs.iterator(), rng);
+        this.songs = new ArrayList<>(songs.size());
+        this.lookup = new HashSet<>(SongsManager.capacityFor(songs.size()));
+        this.addSongs(songs.iterator());
+        this.rng = rng;
+        this.init();
     }
 
     /**
@@ -94,6 +131,7 @@ public class SongsManager implements Iterator<Song> {
      */
     public SongsManager(Iterator<Song> songs, Random rng) {
         this.songs = new ArrayList<>();
+        this.lookup = new HashSet<>();
         this.addSongs(songs);
         this.rng = rng;
         this.init();
@@ -111,6 +149,109 @@ public class SongsManager implements Iterator<Song> {
         return this;
     }
 
+    /**
+     * Enable or disable swap removal. When enabled, {@link #popSong(int)}
+     * moves the last song into the slot of the removed song, so each draw
+     * costs O(1) no matter how many songs are left. Draws are still fully
+     * determined by the random number generator's seed.
+     * 
+     * @param swapRemove Whether to use swap removal.
+     * @return This SongsManager object.
+     */
+    public SongsManager setSwapRemove(boolean swapRemove) {
+        this.swapRemove = swapRemove;
+        return this;
+    }
+
+    /**
+     * Check whether swap removal is enabled.
+     * 
+     * @return true if songs are removed by swapping with the last song.
+     */
+    public boolean isSwapRemove() {
+        return this.swapRemove;
+    }
+
+    /**
+     * Start picking songs with probabilities proportional to their weights.
+     * Songs which are already in the manager and songs added without a
+     * weight have a weight of 1. Since the weights are kept in a Fenwick
+     * tree, picking and removing a song costs O(log n), and songs are always
+     * removed by swapping them with the last song.
+     * 
+     * @return This SongsManager object.
+     */
+    public SongsManager enableWeights() {
+        if (this.weights == null) {
+            this.weights = new WeightedSampler(this.countSongs());
+            for (int index = 0; index < this.countSongs(); index++) {
+                this.weights.add(1.0);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Check whether songs are picked using their weights.
+     * 
+     * @return true if {@link #enableWeights()} has been called.
+     */
+    public boolean isWeighted() {
+        return this.weights != null;
+    }
+
+    /**
+     * Get the weight of the song at an index.
+     * 
+     * @param index The index of the song.
+     * @return The weight of the song. If weights are not used, this is 1.
+     */
+    public double getWeight(int index) {
+        if (index < 0 || index >= this.countSongs()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return this.weights == null ? 1.0 : this.weights.get(index);
+    }
+
+    /**
+     * Change the weight of the song at an index. This starts using weights
+     * if they are not used yet.
+     * 
+     * @param index The index of the song.
+     * @param weight The new weight, which cannot be negative.
+     * @return This SongsManager object.
+     */
+    public SongsManager setWeight(int index, double weight) {
+        this.enableWeights().weights.set(index, weight);
+        return this;
+    }
+
+    /**
+     * Start keeping a reverse index from guesses to the songs in this
+     * manager. The index is kept up to date as songs are added and removed.
+     * 
+     * @return The index.
+     */
+    public SongIndex enableGuessIndex() {
+        if (this.guessIndex == null) {
+            this.guessIndex = new SongIndex();
+            for (Song song : this.songs) {
+                this.guessIndex.add(song);
+            }
+        }
+        return this.guessIndex;
+    }
+
+    /**
+     * Get the reverse index from guesses to the songs in this manager.
+     * 
+     * @return The index, or null if {@link #enableGuessIndex()} has not been
+     * called.
+     */
+    public SongIndex getGuessIndex() {
+        return this.guessIndex;
+    }
+
     /**
      * Add a song to the SongsManager. If the song is already in the queue,
      * the new song will not be added to prevent duplicates.
@@ -120,21 +261,50 @@ public class SongsManager implements Iterator<Song> {
      * added (because of duplicates etc.)
      */
     public boolean addSong(Song song) {
-        if (this.songs.contains(song)) {
+        if (!this.lookup.add(song)) {
             return false;
         } else {
             this.songs.add(song);
+            if (this.weights != null) {
+                this.weights.add(1.0);
+            }
+            if (this.guessIndex != null) {
+                this.guessIndex.add(song);
+            }
             return true;
         }
     }
 
     /**
-     * Add a bunch of songs from a list.
+     * Add a song with a weight. This starts using weights if they are not
+     * used yet. If the song is already in the queue, it is not added and
+     * its weight is not changed.
+     * 
+     * @param song The new song.
+     * @param weight The weight of the song, which cannot be negative.
+     * @return true if the song was added, false if the song could not be
+     * added (because of duplicates etc.)
+     */
+    public boolean addSong(Song song, double weight) {
+        WeightedSampler.checkWeight(weight);
+        this.enableWeights();
+        if (!this.addSong(song)) {
+            return false;
+        }
+        this.weights.set(this.countSongs() - 1, weight);
+        return true;
+    }
+
+    /**
+     * Add a bunch of songs from a list. Space for all of the songs is
+     * reserved up front so that the list and the duplicate lookup only
+     * have to grow once.
      * 
      * @param songs The collection of songs.
      * @return How many songs were successfully added to the manager.
      */
     public int addSongs(Collection<Song> songs) {
+        this.reserve(songs.size());
         return this.addSongs(songs.iterator());
     }
 
@@ -154,6 +324,50 @@ public class SongsManager implements Iterator<Song> {
         return added;
     }
 
+    /**
+     * Make room for a number of extra songs.
+     * 
+     * @param extra How many more songs are expected to be added.
+     * @return This SongsManager object.
+     */
+    public SongsManager reserve(int extra) {
+        int expected = this.countSongs() + extra;
+        this.songs.ensureCapacity(expected);
+        if (extra > this.lookup.size()) {
+            HashSet<Song> lookup = new HashSet<>(
+                SongsManager.capacityFor(expected)
+            );
+            lookup.addAll(this.lookup);
+            this.lookup = lookup;
+        }
+        return this;
+    }
+
+    /**
+     * Get the initial capacity a {@link HashSet} needs to hold a number of
+     * elements without rehashing.
+     * 
+     * @param elements The number of elements.
+     * @return The initial capacity.
+     */
+    protected static int capacityFor(int elements) {
+        return (int) Math.min((long) elements * 4 / 3 + 1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Build the prompt of every song in the manager now, so that asking a
+     * player to guess a song later does not have to.
+     * 
+     * @return This SongsManager object.
+     * @throws Exception If a prompt could not be built.
+     */
+    public SongsManager precomputePrompts() throws Exception {
+        for (Song song : this.songs) {
+            song.getPrompt();
+        }
+        return this;
+    }
+
     /**
      * Count the number of songs in the manager.
      * 
@@ -208,6 +422,8 @@ public class SongsManager implements Iterator<Song> {
             return null;
         } else if (rng == null) {
             return this.getSong(0);
+        } else if (this.weights != null) {
+            return this.getSong(this.weights.sample(rng));
         } else {
             return this.getSong(rng.nextInt(this.countSongs()));
         }
@@ -224,17 +440,33 @@ public class SongsManager implements Iterator<Song> {
 
     /**
      * Remove and return the song at a specified index. If the index is out
-     * of bounds, null is returned instead.
+     * of bounds, null is returned instead. If swap removal is enabled or
+     * weights are used, the last song takes the place of the removed song.
      * 
      * @param index The index of the song.
      * @return The song at the index.
      */
     public Song popSong(int index) {
-        try {
-            return this.songs.remove(index);
-        } catch (IndexOutOfBoundsException e) {
+        if (index < 0 || index >= this.countSongs()) {
             return null;
         }
+        Song song;
+        if (this.weights != null) {
+            this.weights.removeSwap(index);
+        }
+        if (this.swapRemove || this.weights != null) {
+            int last = this.countSongs() - 1;
+            song = this.songs.get(index);
+            this.songs.set(index, this.songs.get(last));
+            this.songs.remove(last);
+        } else {
+            song = this.songs.remove(index);
+        }
+        this.lookup.remove(song);
+        if (this.guessIndex != null) {
+            this.guessIndex.remove(song);
+        }
+        return song;
     }
 
     /**
@@ -249,6 +481,8 @@ public class SongsManager implements Iterator<Song> {
             return null;
         } else if (rng == null) {
             return this.popSong(0);
+        } else if (this.weights != null) {
+            return this.popSong(this.weights.sample(rng));
         } else {
             return this.popSong(rng.nextInt(this.countSongs()));
         }
@@ -0,0 +1,118 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import java.util.HashMap;
+
+/**
+ * A pool of canonical strings. Loaders pass every string they read through
+ * {@link #intern(String)} so that equal strings (such as the name of an
+ * artist with many songs) share a single instance, and the duplicates can
+ * be garbage collected.
+ * 
+ * Unlike {@link String#intern()}, the pool is an ordinary object, so it is
+ * freed once loading is done and keeps track of how much memory it saved.
+ * It is not thread-safe.
+ */
+public class StringPool {
+    /**
+     * The estimated size of a {@link String} object without its characters,
+     * assuming compressed object pointers.
+     */
+    protected static final long STRING_OVERHEAD = 24;
+
+    /**
+     * The estimated size of the header of a byte array.
+     */
+    protected static final long ARRAY_OVERHEAD = 16;
+
+    /**
+     * Estimate how many bytes a string takes up on the heap, assuming
+     * compact strings are enabled.
+     * 
+     * @param string The string.
+     * @return The estimated number of bytes.
+     */
+    public static long estimateSize(String string) {
+        long payload = string.length();
+        for (int index = 0; index < string.length(); index++) {
+            if (string.charAt(index) > 0xFF) {
+                payload *= 2;
+                break;
+            }
+        }
+        long array = (ARRAY_OVERHEAD + payload + 7) & ~7L;
+        return STRING_OVERHEAD + array;
+    }
+
+    protected HashMap<String, String> strings;
+    protected long duplicates;
+    protected long bytesSaved;
+
+    /**
+     * Create an empty pool.
+     */
+    public StringPool() {
+        this.strings = new HashMap<>();
+        this.duplicates = 0;
+        this.bytesSaved = 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "<StringPool size=\"%d\" duplicates=\"%d\" bytesSaved=\"%d\"/>",
+            this.size(),
+            this.getDuplicates(),
+            this.getBytesSaved()
+        );
+    }
+
+    /**
+     * Get the canonical instance of a string. If an equal string is already
+     * in the pool, that string is returned instead and the one given can be
+     * garbage collected.
+     * 
+     * @param string The string, which may be null.
+     * @return The canonical instance of the string.
+     */
+    public String intern(String string) {
+        if (string == null) {
+            return null;
+        }
+        String canonical = this.strings.putIfAbsent(string, string);
+        if (canonical == null) {
+            return string;
+        }
+        if (canonical != string) {
+            this.duplicates++;
+            this.bytesSaved += StringPool.estimateSize(string);
+        }
+        return canonical;
+    }
+
+    /**
+     * Count how many distinct strings are in the pool.
+     * 
+     * @return The number of distinct strings.
+     */
+    public int size() {
+        return this.strings.size();
+    }
+
+    /**
+     * Count how many duplicate strings were replaced by a canonical one.
+     * 
+     * @return The number of duplicates.
+     */
+    public long getDuplicates() {
+        return this.duplicates;
+    }
+
+    /**
+     * Estimate how many bytes were saved by replacing duplicate strings.
+     * 
+     * @return The estimated number of bytes saved.
+     */
+    public long getBytesSaved() {
+        return this.bytesSaved;
+    }
+}
@@ -0,0 +1,200 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Picks random slots with probabilities proportional to their weights. The
+ * weights are kept in a Fenwick tree (binary indexed tree), so adding,
+ * changing and removing a weight and picking a slot all cost O(log n).
+ * 
+ * Slots are numbered from 0 like a list. Removing a slot moves the last
+ * slot into its place, which is how {@link SongsManager} removes songs when
+ * weights are used.
+ */
+public class WeightedSampler {
+    protected double[] weights;
+
+    /**
+     * The Fenwick tree, indexed from 1. {@code tree[i]} is the sum of the
+     * weights of the slots in {@code (i - lowbit(i), i]}.
+     */
+    protected double[] tree;
+    protected int size;
+
+    /**
+     * Create an empty sampler.
+     */
+    public WeightedSampler() {
+        this(16);
+    }
+
+    /**
+     * Create an empty sampler with space for a number of slots.
+     * 
+     * @param capacity The initial number of slots.
+     */
+    public WeightedSampler(int capacity) {
+        capacity = Math.max(capacity, 1);
+        this.weights = new double[capacity];
+        this.tree = new double[capacity + 1];
+        this.size = 0;
+    }
+
+    /**
+     * Check that a weight can be used.
+     * 
+     * @param weight The weight.
+     * @throws IllegalArgumentException If the weight is negative, infinite
+     * or not a number.
+     */
+    protected static void checkWeight(double weight)
+    throws IllegalArgumentException {
+        if (!(weight >= 0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException(
+                "Weights must be finite and cannot be negative."
+            );
+        }
+    }
+
+    /**
+     * Count the number of slots.
+     * 
+     * @return The number of slots.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Get the sum of the weights of the first few slots.
+     * 
+     * @param count The number of slots to add up.
+     * @return The sum of their weights.
+     */
+    protected double prefix(int count) {
+        double sum = 0;
+        for (int index = count; index > 0; index -= index & -index) {
+            sum += this.tree[index];
+        }
+        return sum;
+    }
+
+    /**
+     * Get the sum of every weight.
+     * 
+     * @return The total weight.
+     */
+    public double total() {
+        return this.prefix(this.size);
+    }
+
+    /**
+     * Get the weight of a slot.
+     * 
+     * @param slot The slot.
+     * @return The weight of the slot.
+     */
+    public double get(int slot) {
+        if (slot < 0 || slot >= this.size) {
+            throw new IndexOutOfBoundsException(slot);
+        }
+        return this.weights[slot];
+    }
+
+    /**
+     * Add a slot with a weight after the last slot.
+     * 
+     * @param weight The weight of the new slot.
+     * @return The new slot.
+     */
+    public int add(double weight) {
+        WeightedSampler.checkWeight(weight);
+        if (this.size == this.weights.length) {
+            int capacity = this.weights.length * 2;
+            this.weights = Arrays.copyOf(this.weights, capacity);
+            this.tree = Arrays.copyOf(this.tree, capacity + 1);
+        }
+        int slot = this.size++;
+        int index = slot + 1;
+        this.weights[slot] = weight;
+        this.tree[index] = weight + this.prefix(index - 1) -
+            this.prefix(index - (index & -index));
+        return slot;
+    }
+
+    /**
+     * Change the weight of a slot.
+     * 
+     * @param slot The slot.
+     * @param weight The new weight.
+     */
+    public void set(int slot, double weight) {
+        WeightedSampler.checkWeight(weight);
+        if (slot < 0 || slot >= this.size) {
+            throw new IndexOutOfBoundsException(slot);
+        }
+        double delta = weight - this.weights[slot];
+        this.weights[slot] = weight;
+        for (int index = slot + 1; index <= this.size; index += index & -index) {
+            this.tree[index] += delta;
+        }
+    }
+
+    /**
+     * Remove a slot by moving the last slot into its place.
+     * 
+     * @param slot The slot.
+     */
+    public void removeSwap(int slot) {
+        int last = this.size - 1;
+        if (slot != last) {
+            this.set(slot, this.weights[last]);
+        }
+        this.set(last, 0);
+        this.size--;
+    }
+
+    /**
+     * Remove every slot.
+     */
+    public void clear() {
+        Arrays.fill(this.weights, 0);
+        Arrays.fill(this.tree, 0);
+        this.size = 0;
+    }
+
+    /**
+     * Pick a random slot. The chance of each slot being picked is its weight
+     * divided by the total weight. If every weight is 0, every slot is
+     * equally likely.
+     * 
+     * @param rng The random number generator.
+     * @return The slot, or -1 if there are no slots.
+     */
+    public int sample(Random rng) {
+        if (this.size == 0) {
+            return -1;
+        }
+        double total = this.total();
+        if (!(total > 0)) {
+            return rng.nextInt(this.size);
+        }
+        double remaining = rng.nextDouble() * total;
+        int position = 0;
+        for (int step = Integer.highestOneBit(this.size); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= this.size && this.tree[next] <= remaining) {
+                position = next;
+                remaining -= this.tree[next];
+            }
+        }
+        // Rounding errors can push the position past the last slot with any
+        // weight, so step back over slots with no weight.
+        position = Math.min(position, this.size - 1);
+        while (position > 0 && this.weights[position] == 0) {
+            position--;
+        }
+        return position;
+    }
+}
@@ -0,0 +1,140 @@
+package com.renoirtan.badcodegsce.authentification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.Random;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link Hasher}.
+ */
+public class HasherTest {
+    @Test
+    public void pooledHashMatchesOriginal() throws Exception {
+        String[][] credentials = {
+            {"1", "password"},
+            {"", ""},
+            {"Ünïcödé", "pässwörd"},
+            {"\uD83C\uDFB5 emoji", "\uD83C"},
+            {"split \uD83C", "\uDFB5 pair"},
+            {"\uDFB5", "\uD83C"},
+            {"日本語", "パスワード"}
+        };
+        for (String[] credential : credentials) {
+            assertEquals(
+                new Hasher().hash(credential[0] + credential[1]).toIntSafe(),
+                Hasher.hashUsernameAndPassword(credential[0], credential[1])
+            );
+        }
+    }
+
+    @Test
+    public void localHasherIsReused() throws Exception {
+        Hasher hasher = Hasher.local();
+        hasher.hasher.update((byte) 1);
+        assertSame(hasher, Hasher.local());
+        assertEquals(
+            new Hasher().hash("1password").toIntSafe(),
+            Hasher.local().hashToInt("1", "password")
+        );
+    }
+
+    @Test
+    public void pairDigestIsNotShared() throws Exception {
+        Hasher hasher = new Hasher().hash("anything");
+        byte[] before = hasher.result;
+        hasher.hashToInt("1", "password");
+        assertNull(hasher.result);
+        assertEquals(new Hasher().hash("anything").toLongSafe(), Hasher.sha256ToLong(before));
+        assertEquals(new Hasher().hash("1password").toLongSafe(), hasher.lastHashToLong());
+    }
+
+    @Test
+    public void wideIdUsesWholeDigest() throws Exception {
+        byte[] digest = new byte[32];
+        long before = Hasher.sha256ToLong(digest);
+        digest[31] = 1;
+        assertNotEquals(before, Hasher.sha256ToLong(digest));
+        assertEquals(
+            new Hasher().hash("1password").toLongSafe(),
+            Hasher.hashUsernameAndPasswordWide("1", "password")
+        );
+    }
+
+    private static File createFile(int size) throws Exception {
+        File file = File.createTempFile("hasher", ".bin");
+        file.deleteOnExit();
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        Files.write(file.toPath(), bytes);
+        return file;
+    }
+
+    @Test
+    public void fileHashMatchesCommonsCodec() throws Exception {
+        for (int size : new int[] {0, 1000, 3 * 1024 * 1024 + 7}) {
+            File file = createFile(size);
+            String expected = Hasher.byteArrayToString(
+                DigestUtils.updateDigest(MessageDigest.getInstance("SHA3-256"), file)
+                    .digest()
+            );
+            assertEquals(expected, Hasher.byteArrayToString(new Hasher().hash(file).result));
+            try (FileInputStream stream = new FileInputStream(file)) {
+                Object object = stream;
+                assertEquals(
+                    expected,
+                    Hasher.byteArrayToString(new Hasher().hash(object).result)
+                );
+            }
+            try (InputStream stream = new BufferedInputStream(new FileInputStream(file))) {
+                assertEquals(
+                    expected,
+                    Hasher.byteArrayToString(new Hasher().hash(stream).result)
+                );
+            }
+        }
+    }
+
+    @Test
+    public void streamWithNoSizeIsReadToEnd() throws Exception {
+        // Like a pipe, this reports a size of 0 but is not empty.
+        File file = new File("/proc/self/cmdline");
+        Assume.assumeTrue(file.canRead());
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        Assume.assumeTrue(bytes.length > 0);
+        try (FileInputStream stream = new FileInputStream(file)) {
+            assertEquals(
+                Hasher.byteArrayToString(new Hasher().hash(bytes).result),
+                Hasher.byteArrayToString(new Hasher().hash(stream).result)
+            );
+        }
+    }
+
+    @Test
+    public void treeHashIsStable() throws Exception {
+        File file = createFile(5 * 1024 * 1024 + 3);
+        String first = Hasher.byteArrayToString(
+            new Hasher().treeHash(file, 1024 * 1024).result
+        );
+        String second = Hasher.byteArrayToString(
+            new Hasher().treeHash(file, 1024 * 1024).result
+        );
+        assertEquals(first, second);
+        assertNotEquals(
+            first,
+            Hasher.byteArrayToString(new Hasher().treeHash(file, 2 * 1024 * 1024).result)
+        );
+    }
+}
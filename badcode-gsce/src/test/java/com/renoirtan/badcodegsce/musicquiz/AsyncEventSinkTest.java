@@ -0,0 +1,94 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link AsyncEventSink} and {@link ConsoleEventSink}.
+ */
+public class AsyncEventSinkTest {
+    @Test
+    public void writesSameTextAsConsole() throws Exception {
+        ByteArrayOutputStream console = new ByteArrayOutputStream();
+        TestGames.create(2L, 1, 2, 5, BotStrategy.accuracy(0.5))
+            .setEventSink(new ConsoleEventSink(
+                new PrintStream(console, false, StandardCharsets.UTF_8)
+            ))
+            .play();
+
+        ByteArrayOutputStream buffered = new ByteArrayOutputStream();
+        try (AsyncEventSink sink = new AsyncEventSink(buffered, 4)) {
+            TestGames.create(2L, 1, 2, 5, BotStrategy.accuracy(0.5)).setEventSink(sink).play();
+            sink.flush();
+            String text = buffered.toString(StandardCharsets.UTF_8);
+            assertTrue(text.contains("Guess the name of the song:"));
+            assertEquals(console.toString(StandardCharsets.UTF_8), text);
+        }
+    }
+
+    @Test
+    public void idleWriterParksUntilNextEvent() throws Exception {
+        Song song = new Song("Song", "Artist");
+        Player player = new Player("a", 1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (AsyncEventSink sink = new AsyncEventSink(out, 4)) {
+            for (int round = 0; round < 3; round++) {
+                sink.publish(new GameEvent(GameEvent.Type.PLAYER_SURVIVED, player, song));
+                sink.flush();
+                long deadline = System.currentTimeMillis() + 5000;
+                while (sink.writer.getState() != Thread.State.WAITING &&
+                    System.currentTimeMillis() < deadline
+                ) {
+                    Thread.sleep(1);
+                }
+                assertEquals(Thread.State.WAITING, sink.writer.getState());
+            }
+        }
+        assertEquals("...\n...\n...\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void writesEveryEventFromManyThreads() throws Exception {
+        Song song = new Song("Song", "Artist");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrayList<Thread> threads = new ArrayList<>();
+        try (AsyncEventSink sink = new AsyncEventSink(out, 16)) {
+            for (int thread = 0; thread < 4; thread++) {
+                Player player = new Player("p" + thread, thread);
+                threads.add(new Thread(() -> {
+                    for (int event = 0; event < 1000; event++) {
+                        sink.publish(new GameEvent(
+                            event % 2 == 0 ?
+                                GameEvent.Type.PLAYER_ELIMINATED :
+                                GameEvent.Type.PLAYER_SURVIVED,
+                            player,
+                            song
+                        ));
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(4000, lines.length);
+        int[] eliminated = new int[4];
+        for (String line : lines) {
+            if (!line.equals("...")) {
+                eliminated[line.charAt(1) - '0']++;
+            }
+        }
+        for (int count : eliminated) {
+            assertEquals(500, count);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import static com.renoirtan.badcodegsce.musicquiz.BatchAuthenticator.Credential;
+import static com.renoirtan.badcodegsce.musicquiz.BatchAuthenticator.Status;
+import static com.renoirtan.badcodegsce.musicquiz.Player.PlayerImportBean;
+
+/**
+ * Unit tests for {@link BatchAuthenticator}.
+ */
+public class BatchAuthenticatorTest {
+    private static ArrayList<Credential> createCredentials(int number)
+    throws Exception {
+        ArrayList<Credential> credentials = new ArrayList<>();
+        for (int index = 0; index < number; index++) {
+            Player player = new Player(PlayerImportBean.newUser(
+                "player" + index,
+                "secret" + index
+            ));
+            String password = index % 10 == 3 ? "wrong" : "secret" + index;
+            credentials.add(new Credential(player, password));
+        }
+        return credentials;
+    }
+
+    @Test
+    public void checksEveryCredential() throws Exception {
+        ArrayList<Credential> credentials = createCredentials(500);
+        BatchAuthenticator.Result result = new BatchAuthenticator()
+            .setThreshold(8)
+            .authenticate(credentials);
+        for (int index = 0; index < credentials.size(); index++) {
+            assertEquals(index % 10 != 3, result.isAuthenticated(index));
+        }
+        assertEquals(50, result.count(Status.REJECTED));
+        assertEquals(0, result.count(Status.SKIPPED));
+        assertEquals(3, result.getFirstFailure());
+        assertFalse(result.allAuthenticated());
+    }
+
+    @Test
+    public void stopsAtFirstFailure() throws Exception {
+        ArrayList<Credential> credentials = createCredentials(500);
+        BatchAuthenticator.Result result = new BatchAuthenticator()
+            .setThreshold(8)
+            .authenticate(credentials, true);
+        assertEquals(Status.REJECTED, result.getStatus(result.getFirstFailure()));
+        assertEquals(
+            500,
+            result.count(Status.AUTHENTICATED) +
+                result.count(Status.REJECTED) +
+                result.count(Status.SKIPPED)
+        );
+    }
+
+    @Test
+    public void emptyBatchIsAuthenticated() {
+        assertTrue(
+            new BatchAuthenticator().authenticate(new ArrayList<>()).allAuthenticated()
+        );
+    }
+}
@@ -0,0 +1,71 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link BotStrategy} and headless games.
+ */
+public class BotStrategyTest {
+    private static Game createGame(BotStrategy strategy, int players, int songs) {
+        return TestGames.create(5L, 1, players, songs, strategy);
+    }
+
+    @Test
+    public void alwaysCorrectBotsUseEverySong() throws Exception {
+        Game game = createGame(BotStrategy.alwaysCorrect(), 3, 30);
+        assertEquals(30, game.play());
+        assertEquals(30, game.getRoundsPlayed());
+        assertEquals(3, game.getPlayersManager().playerCount());
+    }
+
+    @Test
+    public void hopelessBotsAreEliminated() throws Exception {
+        Game game = createGame(BotStrategy.accuracy(0), 3, 30);
+        assertEquals(0, game.play());
+        assertEquals(3, game.getRoundsPlayed());
+        assertTrue(game.getPlayersManager().isEmpty());
+    }
+
+    @Test
+    public void replayedTraceIsFollowed() throws Exception {
+        Game game = createGame(
+            BotStrategy.replay(List.of("wrong", "wrong")),
+            1,
+            5
+        );
+        assertEquals(0, game.play());
+        assertEquals(1, game.getRoundsPlayed());
+    }
+
+    @Test
+    public void accuracyIsReproducible() throws Exception {
+        long first = createGame(BotStrategy.accuracy(0.7), 4, 200).play();
+        long second = createGame(BotStrategy.accuracy(0.7), 4, 200).play();
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void wrongGuessesNeverMatch() {
+        GuessMatcher[] matchers = {
+            GuessMatcher.EXACT,
+            GuessMatcher.NORMALIZED,
+            GuessMatcher.fuzzy(0),
+            GuessMatcher.fuzzy(3)
+        };
+        for (String name : new String[] {"", "ab", "Song 1"}) {
+            Song song = new Song(name, "Artist");
+            for (GuessMatcher matcher : matchers) {
+                String guess = BotStrategy.accuracy(0, matcher)
+                    .guess(song, null, new Random(1));
+                assertFalse(song.checkGuess(guess.trim(), matcher));
+            }
+        }
+    }
+}
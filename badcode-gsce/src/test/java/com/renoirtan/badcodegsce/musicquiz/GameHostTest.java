@@ -0,0 +1,98 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PipedReader;
+import java.io.PipedWriter;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link GameHost}.
+ */
+public class GameHostTest {
+    private static Game createGame(int gameId) {
+        return TestGames.create(7L, gameId, 1, 1, null);
+    }
+
+    @Test
+    public void runsGamesWithTheirOwnStreams() throws Exception {
+        try (GameHost host = new GameHost()) {
+            ArrayList<GameHost.Session> sessions = new ArrayList<>();
+            ArrayList<ByteArrayOutputStream> outputs = new ArrayList<>();
+            for (int gameId = 0; gameId < 50; gameId++) {
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                outputs.add(output);
+                // Odd games give up at the end of their input.
+                String input = gameId % 2 == 0 ? "Song 0\n" : "";
+                sessions.add(host.host(createGame(gameId), new StringReader(input), output));
+            }
+            for (int gameId = 0; gameId < sessions.size(); gameId++) {
+                assertEquals(gameId % 2 == 0 ? 1 : 0, sessions.get(gameId).await());
+                assertTrue(outputs.get(gameId).toString().contains("Player: Bot " + gameId + "-0"));
+            }
+            assertEquals(0, host.sessionCount());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsDuplicateGameIds() throws Exception {
+        GameHost host = new GameHost();
+        PipedWriter writer = new PipedWriter();
+        try {
+            host.host(createGame(1), new PipedReader(writer), new ByteArrayOutputStream());
+            host.host(createGame(1), new StringReader(""), new ByteArrayOutputStream());
+        } finally {
+            writer.write("Song 0\n");
+            writer.close();
+            host.close();
+        }
+    }
+
+    @Test
+    public void shutdownNowStopsWaitingGames() throws Exception {
+        GameHost host = new GameHost();
+        PipedWriter writer = new PipedWriter();
+        Game game = createGame(3);
+        Player player = game.getPlayersManager().getPlayers().get(0);
+        Leaderboard leaderboard = new Leaderboard().track(player);
+        GameHost.Session session = host.host(
+            game,
+            new PipedReader(writer),
+            new ByteArrayOutputStream()
+        );
+        assertEquals(session, host.getSession(3));
+        // Wait until the game is waiting for the guess.
+        while (game.getRoundsPlayed() == 0) {
+            Thread.sleep(1);
+        }
+        Thread.sleep(50);
+        host.shutdownNow();
+        assertTrue(host.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(session.isDone());
+        // Stopping is not a wrong guess.
+        assertEquals(0, player.getScore());
+        assertEquals(0, player.getTotalIncorrect());
+        assertEquals(Player.getAllowedChances(), player.chancesLeft());
+        assertEquals(1, game.getPlayersManager().playerCount());
+        assertEquals(0, leaderboard.getStanding(player.getIdentity()).getIncorrect());
+        writer.close();
+    }
+
+    @Test(expected = InterruptedException.class)
+    public void interruptedGameDoesNotSpin() throws Exception {
+        Game game = createGame(4);
+        game.setIO(null, new ScriptedGuessSource("Song 0"));
+        Thread.currentThread().interrupt();
+        try {
+            game.play();
+        } finally {
+            assertEquals(0, game.getRoundsPlayed());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link GameMetrics} and {@link LatencyHistogram}.
+ */
+public class GameMetricsTest {
+    @After
+    public void tearDown() throws Exception {
+        GameMetrics.disable();
+    }
+
+    private static Game createGame(BotStrategy strategy) {
+        return TestGames.create(3L, 1, 2, 10, strategy);
+    }
+
+    @Test
+    public void recordsGamesThroughJmx() throws Exception {
+        GameMetrics metrics = GameMetrics.enable();
+        createGame(BotStrategy.alwaysCorrect()).play();
+        createGame(BotStrategy.accuracy(0)).play();
+
+        assertEquals(2, metrics.getGamesStarted());
+        assertEquals(2, metrics.getGamesFinished());
+        assertEquals(12, metrics.getRoundsPlayed());
+        assertEquals(10, metrics.getCorrectGuesses());
+        assertEquals(4, metrics.getIncorrectGuesses());
+        assertEquals(2, metrics.getEliminations());
+        assertEquals(10.0 / 14, metrics.getCorrectRatio(), 1e-9);
+        assertTrue(metrics.getRoundLatencyP99() >= metrics.getRoundLatencyP50());
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(GameMetrics.OBJECT_NAME);
+        assertEquals(12L, server.getAttribute(name, "RoundsPlayed"));
+        server.invoke(name, "reset", null, null);
+        assertEquals(0, metrics.getRoundsPlayed());
+
+        GameMetrics.disable();
+        assertNull(GameMetrics.current());
+        assertFalse(server.isRegistered(name));
+        createGame(BotStrategy.alwaysCorrect()).play();
+        assertEquals(0, metrics.getRoundsPlayed());
+    }
+
+    @Test
+    public void countsFailedGamesAsFinished() throws Exception {
+        GameMetrics metrics = GameMetrics.enable();
+        Game game = createGame(BotStrategy.alwaysCorrect());
+        game.setIO(null, (song, player, timeout, unit) -> {
+            throw new IllegalStateException("The connection broke.");
+        });
+        try {
+            game.play();
+            fail();
+        } catch (IllegalStateException e) {
+            // Expected.
+        }
+        assertEquals(1, metrics.getGamesStarted());
+        assertEquals(1, metrics.getGamesFinished());
+    }
+
+    @Test
+    public void histogramBucketsByPowersOf2() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentile(0.5));
+        for (int sample = 0; sample < 99; sample++) {
+            histogram.record(100);
+        }
+        histogram.record(5000);
+        assertEquals(100, histogram.count());
+        assertEquals(128, histogram.percentile(0.5));
+        assertEquals(128, histogram.percentile(0.99));
+        assertEquals(8192, histogram.percentile(1));
+        assertEquals(149, histogram.mean(), 1e-9);
+    }
+}
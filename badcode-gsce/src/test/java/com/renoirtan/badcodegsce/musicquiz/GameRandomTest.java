@@ -0,0 +1,59 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link GameRandom}.
+ */
+public class GameRandomTest {
+    private static int[] draw(GameRandom rng) {
+        int[] numbers = new int[16];
+        for (int index = 0; index < numbers.length; index++) {
+            numbers[index] = rng.nextInt(1000);
+        }
+        return numbers;
+    }
+
+    @Test
+    public void sameGameGetsSameNumbers() {
+        assertEquals(
+            Arrays.toString(draw(GameRandom.forGame(42, 7))),
+            Arrays.toString(draw(GameRandom.forGame(42, 7)))
+        );
+    }
+
+    @Test
+    public void differentGamesGetDifferentNumbers() {
+        assertNotEquals(
+            Arrays.toString(draw(GameRandom.forGame(42, 7))),
+            Arrays.toString(draw(GameRandom.forGame(42, 8)))
+        );
+        assertNotEquals(
+            GameRandom.seedFor(42, 7),
+            GameRandom.seedFor(43, 7)
+        );
+    }
+
+    @Test
+    public void gamesDrawReproducibleSongs() {
+        String[] orders = new String[2];
+        for (int run = 0; run < 2; run++) {
+            Game game = new Game(1234L, 99);
+            for (int song = 0; song < 20; song++) {
+                game.getSongsManager().addSong(new Song("Song " + song, "Artist"));
+            }
+            StringBuilder order = new StringBuilder();
+            while (game.getSongsManager().hasNext()) {
+                order.append(game.getSongsManager().next().getName());
+            }
+            orders[run] = order.toString();
+        }
+        assertEquals(orders[0], orders[1]);
+        assertEquals(99, new Game(1234L, 99).getGameId());
+    }
+}
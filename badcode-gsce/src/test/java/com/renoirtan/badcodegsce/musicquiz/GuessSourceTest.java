@@ -0,0 +1,104 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link GuessSource} implementations.
+ */
+public class GuessSourceTest {
+    private static final Song SONG = new Song("DMCA", "City Animals");
+
+    private static PrintStream discard() {
+        return new PrintStream(new ByteArrayOutputStream());
+    }
+
+    @Test
+    public void scriptedGuessesFeedQuiz() throws Exception {
+        Player player = new Player("a", 1);
+        GuessSource guesses = new ScriptedGuessSource("Oldwater", " DMCA ");
+        assertFalse(SONG.quizPlayer(discard(), guesses, player));
+        assertEquals(1, player.getScore());
+        assertNull(guesses.nextGuess(SONG, player, 0, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void timeoutCountsAsWrongGuess() throws Exception {
+        Player player = new Player("a", 1);
+        QueueGuessSource guesses = new QueueGuessSource();
+        long start = System.nanoTime();
+        assertTrue(SONG.quizPlayer(discard(), guesses, player, 20, TimeUnit.MILLISECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(40));
+        assertEquals(2, player.getTotalIncorrect());
+    }
+
+    @Test
+    public void submittedGuessWakesWaitingGame() throws Exception {
+        Player player = new Player("a", 1);
+        QueueGuessSource guesses = new QueueGuessSource();
+        Thread sender = new Thread(() -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                return;
+            }
+            guesses.submit("DMCA");
+        });
+        sender.start();
+        assertFalse(SONG.quizPlayer(discard(), guesses, player, 10, TimeUnit.SECONDS));
+        assertEquals(3, player.getScore());
+        sender.join();
+    }
+
+    @Test
+    public void pumpEndsWithReader() throws Exception {
+        QueueGuessSource guesses = new QueueGuessSource()
+            .pump(new StringReader("first\nsecond\n"));
+        Player player = new Player();
+        assertEquals("first", guesses.nextGuess(SONG, player, 5, TimeUnit.SECONDS));
+        assertEquals("second", guesses.nextGuess(SONG, player, 5, TimeUnit.SECONDS));
+        assertNull(guesses.nextGuess(SONG, player, 5, TimeUnit.SECONDS));
+        assertNull(guesses.nextGuess(SONG, player, 0, TimeUnit.SECONDS));
+        assertTrue(guesses.isEnded());
+        assertFalse(guesses.submit("late"));
+    }
+
+    @Test
+    public void noGuessesAfterEnd() throws Exception {
+        Player player = new Player();
+        for (int attempt = 0; attempt < 200; attempt++) {
+            QueueGuessSource guesses = new QueueGuessSource();
+            Thread submitter = new Thread(() -> {
+                while (guesses.submit("guess")) {
+                    // Keep submitting until the source ends.
+                }
+            });
+            submitter.start();
+            guesses.end();
+            submitter.join();
+            while (guesses.nextGuess(SONG, player, 0, TimeUnit.SECONDS) != null) {
+                // Drain the guesses accepted before the end.
+            }
+            assertNull(guesses.nextGuess(SONG, player, 0, TimeUnit.SECONDS));
+            assertEquals(1, guesses.queue.size());
+        }
+    }
+
+    @Test
+    public void gameUsesItsOwnSource() throws Exception {
+        Game game = new Game(1L, 1);
+        game.getPlayersManager().addPlayer(new Player("a", 1));
+        game.getSongsManager().addSong(SONG);
+        game.setIO(discard(), new ScriptedGuessSource("DMCA"));
+        assertEquals(1, game.play());
+    }
+}
@@ -0,0 +1,83 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link Leaderboard}.
+ */
+public class LeaderboardTest {
+    @Test
+    public void followsGuesses() throws Exception {
+        Leaderboard leaderboard = new Leaderboard();
+        Player a = new Player("a", 1);
+        Player b = new Player("b", 2);
+        Player c = new Player("c", 3);
+        leaderboard.track(a).track(b).track(c);
+        assertEquals(3, leaderboard.size());
+
+        a.guess(false);
+        a.guess(true);
+        b.guess(true);
+        c.guess(false);
+        c.guess(true);
+        // b has 3 points; a and c have 1 point and 1 wrong guess each.
+        List<Leaderboard.Standing> top = leaderboard.top(2);
+        assertEquals(2, top.size());
+        assertEquals("b", top.get(0).getUsername());
+        assertEquals("a", top.get(1).getUsername());
+        assertEquals(3, leaderboard.rankOf(3));
+
+        c.guess(true);
+        assertEquals(1, leaderboard.rankOf(3));
+        assertEquals(4, leaderboard.getStanding(3).getScore());
+        assertEquals(-1, leaderboard.rankOf(99));
+    }
+
+    @Test
+    public void matchesSortingUnderConcurrentUpdates() throws Exception {
+        Leaderboard leaderboard = new Leaderboard();
+        ArrayList<Player> players = new ArrayList<>();
+        for (int id = 0; id < 200; id++) {
+            Player player = new Player("p" + id, id);
+            players.add(player);
+            leaderboard.track(player);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        ArrayList<Future<?>> games = new ArrayList<>();
+        for (int game = 0; game < 4; game++) {
+            Random rng = new Random(game);
+            games.add(pool.submit(() -> {
+                for (int update = 0; update < 5000; update++) {
+                    Player player = players.get(rng.nextInt(players.size()));
+                    leaderboard.record(player, rng.nextInt(4), rng.nextInt(2));
+                }
+            }));
+        }
+        for (Future<?> game : games) {
+            game.get();
+        }
+        pool.shutdown();
+
+        List<Leaderboard.Standing> all = leaderboard.top(players.size());
+        ArrayList<Leaderboard.Standing> sorted = new ArrayList<>(all);
+        sorted.sort(Comparator
+            .comparingInt(Leaderboard.Standing::getScore).reversed()
+            .thenComparingInt(Leaderboard.Standing::getIncorrect)
+            .thenComparingLong(Leaderboard.Standing::getIdentity));
+        assertEquals(players.size(), all.size());
+        for (int index = 0; index < all.size(); index++) {
+            assertEquals(sorted.get(index).getIdentity(), all.get(index).getIdentity());
+            assertEquals(index + 1, leaderboard.rankOf(all.get(index).getIdentity()));
+        }
+    }
+}
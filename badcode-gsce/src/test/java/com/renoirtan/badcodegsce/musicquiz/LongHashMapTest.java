@@ -0,0 +1,59 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link LongHashMap}.
+ */
+public class LongHashMapTest {
+    @Test
+    public void behavesLikeHashMap() {
+        Random rng = new Random(1);
+        LongHashMap<Long> map = new LongHashMap<>();
+        HashMap<Long, Long> expected = new HashMap<>();
+        for (int operation = 0; operation < 200_000; operation++) {
+            // A small key range forces collisions, removals and re-adds.
+            long key = rng.nextInt(2000) - 1000;
+            if (rng.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, (long) operation), map.put(key, (long) operation));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (long key = -1000; key < 1000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+
+    @Test
+    public void putIfAbsentKeepsExistingValue() {
+        LongHashMap<String> map = new LongHashMap<>();
+        assertNull(map.putIfAbsent(0, "first"));
+        assertEquals("first", map.putIfAbsent(0, "second"));
+        assertEquals("first", map.get(0));
+        map.clear();
+        assertNull(map.get(0));
+    }
+
+    @Test
+    public void playersManagerFindsPlayersById() {
+        PlayersManager manager = new PlayersManager();
+        Player first = new Player("first", 7, 0x1234_5678_9ABC_DEF0L);
+        Player second = new Player("second", 7, 0x0FED_CBA9_8765_4321L);
+        assertEquals(true, manager.addPlayer(first));
+        // Same 32-bit id, different wide id: no longer a false duplicate.
+        assertEquals(true, manager.addPlayer(second));
+        assertEquals(false, manager.addPlayer(new Player("copy", 7, first.getWideId())));
+        assertEquals(second, manager.getPlayerById(second.getIdentity()));
+        assertEquals(first, manager.removePlayerById(first.getIdentity()));
+        assertNull(manager.getPlayerById(first.getIdentity()));
+        assertEquals(1, manager.playerCount());
+    }
+}
@@ -0,0 +1,68 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link MappedSongCatalog} and {@link CatalogSongsManager}.
+ */
+public class MappedSongCatalogTest {
+    private static final List<Song> SONGS = List.of(
+        new Song("DMCA", "City Animals"),
+        new Song("Oldwater", "20 Years of Winter"),
+        new Song("Laughing outside the moon", "Ball"),
+        new Song("Über", "Ünïcödé")
+    );
+
+    private static MappedSongCatalog compile() throws Exception {
+        Path path = Files.createTempFile("songs", ".bin");
+        path.toFile().deleteOnExit();
+        assertEquals(SONGS.size(), MappedSongCatalog.compile(SONGS.iterator(), path));
+        return MappedSongCatalog.open(path);
+    }
+
+    @Test
+    public void roundTripsSongs() throws Exception {
+        MappedSongCatalog catalog = compile();
+        assertEquals(SONGS.size(), catalog.countSongs());
+        for (int index = 0; index < SONGS.size(); index++) {
+            assertEquals(SONGS.get(index), catalog.getSong(index));
+        }
+    }
+
+    @Test
+    public void managerDrawsEverySongOnce() throws Exception {
+        CatalogSongsManager manager = new CatalogSongsManager(
+            compile(),
+            new Random(3)
+        );
+        ArrayList<Song> drawn = new ArrayList<>();
+        while (manager.hasNext()) {
+            drawn.add(manager.next());
+        }
+        assertEquals(new HashSet<>(SONGS), new HashSet<>(drawn));
+        assertEquals(SONGS.size(), drawn.size());
+        assertNull(manager.popSong());
+        assertFalse(manager.addSong(new Song()));
+    }
+
+    @Test
+    public void managerIgnoresWeights() throws Exception {
+        CatalogSongsManager manager = new CatalogSongsManager(
+            compile(),
+            new Random(3)
+        );
+        manager.setWeight(0, 5.0);
+        assertEquals(1.0, manager.getWeight(0), 0.0);
+    }
+}
@@ -0,0 +1,53 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import com.google.gson.JsonSyntaxException;
+
+/**
+ * Unit tests for {@link PlayerJsonIterator}.
+ */
+public class PlayerJsonIteratorTest {
+    private static final String JSON =
+        "[{\"username\": \"alice\", \"authId\": 12}," +
+        " {\"authId\": -7, \"wideId\": 1234567890123, \"username\": \"bob\"}," +
+        " {\"username\": \"carol\", \"authId\": 99, \"team\": [1, 2]}," +
+        " {\"username\": \"alice\", \"authId\": 12}]";
+
+    @Test
+    public void matchesGsonImport() throws Exception {
+        ArrayList<Player> imported = Player.importPlayersFromJson(
+            new StringReader(JSON)
+        );
+        ArrayList<Player> streamed = new ArrayList<>();
+        Player.streamPlayersFromJson(new StringReader(JSON))
+            .forEachRemaining(streamed::add);
+        assertEquals(imported.size(), streamed.size());
+        for (int index = 0; index < imported.size(); index++) {
+            Player expected = imported.get(index);
+            Player actual = streamed.get(index);
+            assertEquals(expected.getUsername(), actual.getUsername());
+            assertEquals(expected.getAuthId(), actual.getAuthId());
+            assertEquals(expected.getWideId(), actual.getWideId());
+        }
+    }
+
+    @Test
+    public void importsIntoManager() throws Exception {
+        PlayersManager manager = new PlayersManager();
+        assertEquals(3, Player.importPlayersFromJson(new StringReader(JSON), manager));
+        assertEquals(3, manager.playerCount());
+        assertEquals("bob", manager.getPlayerById(1234567890123L).getUsername());
+    }
+
+    @Test(expected = JsonSyntaxException.class)
+    public void rejectsWrongTypes() {
+        Player.streamPlayersFromJson(new StringReader("[{\"authId\": \"x\"}]"))
+            .next();
+    }
+}
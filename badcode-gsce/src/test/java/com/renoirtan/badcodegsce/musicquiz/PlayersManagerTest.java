@@ -0,0 +1,94 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link PlayersManager}.
+ */
+public class PlayersManagerTest {
+    private static PlayersManager createManager(int count) {
+        PlayersManager manager = new PlayersManager();
+        for (int id = 0; id < count; id++) {
+            manager.addPlayer(new Player("p" + id, id));
+        }
+        return manager;
+    }
+
+    private static String take(PlayersManager manager, int turns) {
+        StringBuilder order = new StringBuilder();
+        for (int turn = 0; turn < turns; turn++) {
+            order.append(manager.next().getAuthId());
+        }
+        return order.toString();
+    }
+
+    @Test
+    public void rotatesInJoinOrder() {
+        PlayersManager manager = createManager(3);
+        assertEquals("0120120", take(manager, 7));
+        assertEquals(7, manager.turnsPassed());
+        assertEquals(1, manager.getCurrentIndex());
+    }
+
+    @Test
+    public void removeLastPlayerKeepsTurnOrder() {
+        PlayersManager manager = createManager(4);
+        assertEquals("01", take(manager, 2));
+        assertEquals(1, manager.removeLastPlayer().getAuthId());
+        assertNull(manager.removeLastPlayer());
+        assertEquals("2302", take(manager, 4));
+        assertEquals(2, manager.removeLastPlayer().getAuthId());
+        assertEquals("3030", take(manager, 4));
+        assertFalse(manager.containsId(2));
+    }
+
+    @Test
+    public void removeCurrentPlayerPassesTurn() {
+        PlayersManager manager = createManager(3);
+        take(manager, 1);
+        assertEquals(1, manager.removeCurrentPlayer().getAuthId());
+        assertEquals("202", take(manager, 3));
+    }
+
+    @Test
+    public void lateJoinerPlaysAtEndOfRound() {
+        PlayersManager manager = createManager(3);
+        take(manager, 1);
+        assertTrue(manager.addPlayer(new Player("late", 9)));
+        assertFalse(manager.addPlayer(new Player("again", 9)));
+        assertEquals("12901", take(manager, 5));
+    }
+
+    @Test
+    public void removesById() {
+        PlayersManager manager = createManager(5);
+        take(manager, 2);
+        assertEquals(2, manager.removePlayerById(2).getAuthId());
+        assertEquals(0, manager.removePlayerById(0).getAuthId());
+        assertNull(manager.removePlayerById(0));
+        assertEquals("3413", take(manager, 4));
+        assertEquals(List.of(1L, 3L, 4L), manager.getPlayers().stream()
+            .map(Player::getIdentity).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void emptiesCleanly() {
+        PlayersManager manager = createManager(2);
+        take(manager, 1);
+        manager.removeLastPlayer();
+        take(manager, 1);
+        manager.removeLastPlayer();
+        assertTrue(manager.isEmpty());
+        assertFalse(manager.hasNext());
+        assertNull(manager.next());
+        assertNull(manager.removeCurrentPlayer());
+    }
+}
@@ -0,0 +1,122 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.renoirtan.badcodegsce.musicquiz.Player.PlayerExportBean;
+
+/**
+ * Unit tests for {@link ScoreStore}.
+ */
+public class ScoreStoreTest {
+    private static Path createLog() throws Exception {
+        Path log = Files.createTempFile("scores", ".jsonl");
+        log.toFile().deleteOnExit();
+        log.resolveSibling(log.getFileName() + ".compact").toFile().deleteOnExit();
+        return log;
+    }
+
+    @Test
+    public void keepsLatestRecordOfEachPlayer() throws Exception {
+        Path log = createLog();
+        try (ScoreStore store = new ScoreStore(log, 64, 1000)) {
+            for (int round = 0; round < 10; round++) {
+                assertTrue(store.offer(new PlayerExportBean("a", 1, round, 0)));
+                assertTrue(store.offer(new PlayerExportBean("b", 2, 0, round)));
+            }
+            Map<Long, PlayerExportBean> latest = store.readLatest();
+            assertEquals(2, latest.size());
+            assertEquals(9, latest.get(1L).getScore());
+            assertEquals(9, latest.get(2L).getIncorrect());
+        }
+        assertEquals(20, Files.readAllLines(log).size());
+    }
+
+    @Test
+    public void compactsLog() throws Exception {
+        Path log = createLog();
+        try (ScoreStore store = new ScoreStore(log, 16, 5)) {
+            for (int round = 0; round < 50; round++) {
+                // The queue is small, so wait for room instead of dropping.
+                while (!store.offer(new PlayerExportBean("a", 1, round, 0))) {
+                    Thread.yield();
+                }
+            }
+            store.flush();
+        }
+        assertTrue(Files.readAllLines(log).size() < 50);
+        assertEquals(49, ScoreStore.readLatest(log).get(1L).getScore());
+    }
+
+    @Test
+    public void keepsWritingAfterFailedCompaction() throws Exception {
+        Path log = createLog();
+        // A directory in the way of the compacted log makes compaction fail.
+        Path compacted = log.resolveSibling(log.getFileName() + ".compact");
+        Files.createDirectory(compacted);
+        ScoreStore store = new ScoreStore(log, 16, 5);
+        for (int round = 0; round < 50; round++) {
+            while (!store.offer(new PlayerExportBean("a", 1, round, 0))) {
+                Thread.yield();
+            }
+        }
+        // Closing waits for the compactor to finish.
+        store.close();
+        assertNull(store.getFailure());
+        assertNotNull(store.getCompactFailure());
+        assertEquals(49, ScoreStore.readLatest(log).get(1L).getScore());
+    }
+
+    @Test
+    public void keepsPlayersWithCollidingIds() throws Exception {
+        Path log = createLog();
+        try (ScoreStore store = new ScoreStore(log, 16, 4)) {
+            for (int round = 0; round < 20; round++) {
+                while (!store.offer(new PlayerExportBean("a", 7, 100L, round, 0))) {
+                    Thread.yield();
+                }
+                while (!store.offer(new PlayerExportBean("b", 7, 200L, 0, round))) {
+                    Thread.yield();
+                }
+            }
+        }
+        Map<Long, PlayerExportBean> latest = ScoreStore.readLatest(log);
+        assertEquals(2, latest.size());
+        assertEquals(19, latest.get(100L).getScore());
+        assertEquals(19, latest.get(200L).getIncorrect());
+    }
+
+    @Test
+    public void dropsRecordsAfterClosing() throws Exception {
+        Path log = createLog();
+        ScoreStore store = new ScoreStore(log);
+        store.offer(new PlayerExportBean("a", 1, 3, 0));
+        store.close();
+        assertFalse(store.offer(new PlayerExportBean("a", 1, 6, 0)));
+        assertEquals(1, store.getDropped());
+        assertEquals(3, ScoreStore.readLatest(log).get(1L).getScore());
+    }
+
+    @Test
+    public void skipsNullRecords() throws Exception {
+        Path log = createLog();
+        Files.write(log, Arrays.asList(
+            "{\"username\":\"a\",\"authId\":1,\"score\":4,\"incorrect\":0}",
+            "null",
+            "{\"username\":\"a\",\"authId\":1,\"sco"
+        ));
+        Map<Long, PlayerExportBean> latest = ScoreStore.readLatest(log);
+        assertEquals(1, latest.size());
+        assertEquals(4, latest.get(1L).getScore());
+    }
+}
@@ -0,0 +1,94 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link Scoreboard}.
+ */
+public class ScoreboardTest {
+    @Test
+    public void playersBecomeViews() throws Exception {
+        Player player = new Player("a", 1);
+        player.guess(true);
+        Scoreboard scoreboard = new Scoreboard(1);
+        assertEquals(0, scoreboard.add(player));
+        assertEquals(0, scoreboard.add(player));
+        assertSame(scoreboard, player.getScoreboard());
+        assertEquals(3, scoreboard.getScore(0));
+
+        player.guess(false);
+        player.guess(true);
+        assertEquals(4, player.getScore());
+        assertEquals(4, scoreboard.getScore(0));
+        assertEquals(1, scoreboard.getTotalIncorrect(0));
+
+        scoreboard.clear();
+        assertNull(player.getScoreboard());
+        assertEquals(4, player.getScore());
+        assertEquals(1, player.getTotalIncorrect());
+    }
+
+    @Test
+    public void ranksPlayers() throws Exception {
+        Scoreboard scoreboard = new Scoreboard(2);
+        Player[] players = new Player[5];
+        for (int id = 0; id < players.length; id++) {
+            players[id] = new Player("p" + id, id);
+            scoreboard.add(players[id]);
+        }
+        players[1].guess(true);
+        players[3].guess(true);
+        players[3].guess(false);
+        players[4].guess(true);
+        players[2].guess(false);
+        assertArrayEquals(new int[] {1, 4, 3, 0, 2}, scoreboard.standings());
+        assertEquals(9, scoreboard.totalScore());
+        assertEquals(3, scoreboard.maxScore());
+        assertEquals("p1", scoreboard.exportStandings().get(0).getUsername());
+
+        players[2].guess(false);
+        assertEquals(1, scoreboard.countEliminated());
+        scoreboard.flushAllIncorrect();
+        assertEquals(0, scoreboard.countEliminated());
+        assertEquals(2, players[2].getTotalIncorrect());
+
+        scoreboard.resetAll();
+        assertEquals(0, scoreboard.totalScore());
+        assertEquals(0, players[1].getScore());
+    }
+
+    @Test
+    public void reusesSlotsOfRemovedPlayers() throws Exception {
+        Scoreboard scoreboard = new Scoreboard(2);
+        Player first = new Player("a", 1);
+        Player second = new Player("b", 2);
+        scoreboard.add(first);
+        scoreboard.add(second);
+        first.guess(true);
+        assertTrue(scoreboard.remove(first));
+        assertFalse(scoreboard.remove(first));
+        assertNull(first.getScoreboard());
+        assertEquals(3, first.getScore());
+        assertEquals(1, scoreboard.size());
+        assertEquals(0, scoreboard.totalScore());
+        assertArrayEquals(new int[] {1}, scoreboard.standings());
+        assertEquals(1, scoreboard.export().size());
+
+        for (int round = 0; round < 100; round++) {
+            Player player = new Player("p" + round, round + 3);
+            assertEquals(0, scoreboard.add(player));
+            player.guess(true);
+            scoreboard.remove(player);
+        }
+        assertEquals(2, scoreboard.players.length);
+        assertEquals(0, scoreboard.add(first));
+        assertEquals(3, scoreboard.getScore(0));
+    }
+}
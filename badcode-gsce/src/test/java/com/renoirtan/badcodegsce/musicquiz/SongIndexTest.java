@@ -0,0 +1,43 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link SongIndex}.
+ */
+public class SongIndexTest {
+    private static final Song DMCA = new Song("DMCA", "City Animals");
+    private static final Song DONT = new Song("Don't Stop", "Queen");
+    private static final Song DONT_COVER = new Song("dont stop", "Cover Band");
+
+    @Test
+    public void looksUpExactAndPrefix() {
+        SongIndex index = new SongIndex().add(DMCA).add(DONT).add(DONT_COVER);
+        assertEquals(List.of(DONT, DONT_COVER), index.lookup("DONT STOP!"));
+        assertEquals(List.of(DMCA), index.lookup("d.m.c.a"));
+        assertTrue(index.lookup("dm").isEmpty());
+        assertEquals(3, index.countPrefix("d"));
+        assertEquals(2, index.lookupPrefix("don", 10).size());
+        assertEquals(1, index.lookupPrefix("d", 1).size());
+        assertEquals(0, index.countPrefix("x"));
+    }
+
+    @Test
+    public void followsSongsManager() {
+        SongsManager manager = new SongsManager(List.of(DMCA, DONT));
+        SongIndex index = manager.enableGuessIndex();
+        assertEquals(2, index.size());
+        manager.addSong(DONT_COVER);
+        assertEquals(2, index.lookup("dont stop").size());
+        manager.popSong(0);
+        assertTrue(index.lookup("dmca").isEmpty());
+        assertEquals(0, index.countPrefix("dm"));
+        manager.reset();
+        assertEquals(0, index.size());
+    }
+}
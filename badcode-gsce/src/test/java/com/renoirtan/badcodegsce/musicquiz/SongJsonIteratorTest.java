@@ -0,0 +1,48 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import com.google.gson.JsonSyntaxException;
+
+/**
+ * Unit tests for {@link SongJsonIterator}.
+ */
+public class SongJsonIteratorTest {
+    private static final String JSON =
+        "[{\"name\": \"DMCA\", \"artist\": \"City Animals\"}," +
+        " {\"artist\": \"Ball\", \"year\": 2020, \"name\": \"Oldwater\"}," +
+        " {\"name\": \"Forwards\"}]";
+
+    @Test
+    public void matchesGsonImport() throws Exception {
+        ArrayList<Song> imported = Song.importSongsFromJson(new StringReader(JSON));
+        ArrayList<Song> streamed = new ArrayList<>();
+        Song.streamSongsFromJson(new StringReader(JSON))
+            .forEachRemaining(streamed::add);
+        assertEquals(imported, streamed);
+    }
+
+    @Test
+    public void feedsSongsManager() {
+        SongsManager manager = new SongsManager(
+            Song.streamSongsFromJson(new StringReader(JSON))
+        );
+        assertEquals(3, manager.countSongs());
+    }
+
+    @Test
+    public void emptyArrayHasNoSongs() {
+        assertFalse(Song.streamSongsFromJson(new StringReader("[]")).hasNext());
+    }
+
+    @Test(expected = JsonSyntaxException.class)
+    public void rejectsNonArray() {
+        Song.streamSongsFromJson(new StringReader("{}")).hasNext();
+    }
+}
@@ -0,0 +1,80 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link Song}.
+ */
+public class SongTest {
+    @Test
+    public void formatsInitials() throws Exception {
+        assertEquals("L o t m", new Song("Laughing outside the moon", "Ball")
+            .formatFirstLetterOfEachWordInName());
+        assertEquals("a b", new Song("  a   bc ", "Ball")
+            .formatFirstLetterOfEachWordInName());
+        assertEquals("", new Song("", "Ball")
+            .formatFirstLetterOfEachWordInName());
+    }
+
+    @Test
+    public void cachesPrompt() throws Exception {
+        Song song = new Song("DMCA", "City Animals");
+        String prompt = song.getPrompt();
+        assertEquals(
+            " - First letter of each word in the song: D\n - Artist: City Animals",
+            prompt
+        );
+        assertSame(prompt, song.getPrompt());
+    }
+
+    @Test
+    public void exactMatchingIsTheDefault() {
+        Song song = new Song("DMCA", "City Animals");
+        assertTrue(song.checkGuess("DMCA"));
+        assertFalse(song.checkGuess("dmca"));
+    }
+
+    @Test
+    public void normalizedMatchingIgnoresCaseAndPunctuation() {
+        Song song = new Song("Don't Stop Me Now", "Queen");
+        assertTrue(song.checkGuess("dont stop me now!", GuessMatcher.NORMALIZED));
+        assertTrue(song.checkGuess("  DON'T-STOP-ME-NOW", GuessMatcher.NORMALIZED));
+        assertFalse(song.checkGuess("dont stop me", GuessMatcher.NORMALIZED));
+        assertFalse(song.checkGuess("dont stop me now now", GuessMatcher.NORMALIZED));
+    }
+
+    @Test
+    public void fuzzyMatchingAllowsTypos() {
+        Song song = new Song("Laughing outside the moon", "Ball");
+        GuessMatcher oneTypo = GuessMatcher.fuzzy(1);
+        GuessMatcher twoTypos = GuessMatcher.fuzzy(2);
+        assertTrue(song.checkGuess("laughing outside the moon", oneTypo));
+        assertTrue(song.checkGuess("laughing outsde the moon", oneTypo));
+        assertTrue(song.checkGuess("laughing outsidee the moon", oneTypo));
+        assertTrue(song.checkGuess("laughing outsife the moon", oneTypo));
+        assertFalse(song.checkGuess("laughing outsde the mon", oneTypo));
+        assertTrue(song.checkGuess("laughing outsde the mon", twoTypos));
+        assertFalse(song.checkGuess("something else", twoTypos));
+        assertTrue(new Song("ab", "x").checkGuess("", twoTypos));
+        assertFalse(new Song("abc", "x").checkGuess("", twoTypos));
+    }
+
+    @Test
+    public void matcherBelongsToEachGame() throws Exception {
+        Game lenient = new Game(1L, 1).setGuessMatcher(GuessMatcher.NORMALIZED);
+        Game strict = new Game(1L, 2);
+        for (Game game : new Game[] {lenient, strict}) {
+            game.getSongsManager().addSong(new Song("DMCA", "City Animals"));
+            game.getPlayersManager().addPlayer(new Player("a", 1));
+            game.setIO(null, new ScriptedGuessSource("dmca", "dmca", "dmca"));
+        }
+        assertEquals(1, lenient.play());
+        assertEquals(0, strict.play());
+        assertSame(GuessMatcher.EXACT, strict.getGuessMatcher());
+    }
+}
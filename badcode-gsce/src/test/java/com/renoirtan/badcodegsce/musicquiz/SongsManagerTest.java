@@ -0,0 +1,114 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link SongsManager}.
+ */
+public class SongsManagerTest {
+    private static ArrayList<Song> createSongs(int number) {
+        ArrayList<Song> songs = new ArrayList<>();
+        for (int song = 0; song < number; song++) {
+            songs.add(new Song("Song " + song, "Artist " + song));
+        }
+        return songs;
+    }
+
+    private static ArrayList<Song> drain(SongsManager manager) {
+        ArrayList<Song> drawn = new ArrayList<>();
+        while (manager.hasNext()) {
+            drawn.add(manager.next());
+        }
+        return drawn;
+    }
+
+    @Test
+    public void swapRemoveDrawsEverySongOnce() {
+        SongsManager manager = new SongsManager(createSongs(100), new Random(7))
+            .setSwapRemove(true);
+        ArrayList<Song> drawn = drain(manager);
+        assertEquals(100, drawn.size());
+        assertEquals(100, new HashSet<>(drawn).size());
+        assertTrue(manager.isEmpty());
+    }
+
+    @Test
+    public void swapRemoveIsReproducible() {
+        ArrayList<Song> first = drain(
+            new SongsManager(createSongs(50), new Random(42)).setSwapRemove(true)
+        );
+        ArrayList<Song> second = drain(
+            new SongsManager(createSongs(50), new Random(42)).setSwapRemove(true)
+        );
+        assertEquals(first.toString(), second.toString());
+    }
+
+    @Test
+    public void popSongOutOfBoundsReturnsNull() {
+        SongsManager manager = new SongsManager(createSongs(3)).setSwapRemove(true);
+        assertEquals(null, manager.popSong(3));
+        assertEquals(null, manager.popSong(-1));
+        assertFalse(manager.isEmpty());
+    }
+
+    @Test
+    public void duplicatesWithEqualContentAreRejected() {
+        SongsManager manager = new SongsManager();
+        assertTrue(manager.addSong(new Song(new String("DMCA"), "City Animals")));
+        assertFalse(manager.addSong(new Song(new String("DMCA"), "City Animals")));
+        assertEquals(2, manager.addSongs(createSongs(2)));
+        assertEquals(0, manager.addSongs(createSongs(2)));
+        assertEquals(3, manager.countSongs());
+    }
+
+    @Test
+    public void poppedSongsCanBeAddedAgain() {
+        SongsManager manager = new SongsManager(createSongs(2));
+        Song song = manager.popSong(0);
+        assertTrue(manager.addSong(song));
+        assertEquals(2, manager.countSongs());
+    }
+
+    @Test
+    public void weightedDrawsFollowWeights() {
+        SongsManager manager = new SongsManager(new Random(11));
+        Song heavy = new Song("Heavy", "Artist");
+        Song light = new Song("Light", "Artist");
+        Song never = new Song("Never", "Artist");
+        manager.addSong(heavy, 9.0);
+        manager.addSong(light, 1.0);
+        manager.addSong(never, 0.0);
+        int heavyCount = 0;
+        for (int draw = 0; draw < 10000; draw++) {
+            Song song = manager.getSong();
+            assertTrue(song != never);
+            if (song == heavy) {
+                heavyCount++;
+            }
+        }
+        assertTrue(heavyCount > 8500 && heavyCount < 9500);
+    }
+
+    @Test
+    public void weightedPopsKeepWeightsWithSongs() {
+        SongsManager manager = new SongsManager(createSongs(5), new Random(5))
+            .enableWeights();
+        Song zero = manager.getSong(0);
+        manager.setWeight(0, 0.0);
+        ArrayList<Song> drawn = new ArrayList<>();
+        for (int draw = 0; draw < 4; draw++) {
+            drawn.add(manager.popSong());
+        }
+        assertFalse(drawn.contains(zero));
+        assertEquals(zero, manager.popSong());
+        assertTrue(manager.isEmpty());
+    }
+}
@@ -0,0 +1,45 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link StringPool}.
+ */
+public class StringPoolTest {
+    private static final String JSON =
+        "[{\"name\": \"One\", \"artist\": \"Ball\"}," +
+        " {\"name\": \"Two\", \"artist\": \"Ball\"}," +
+        " {\"name\": \"Three\", \"artist\": \"Ball\"}]";
+
+    @Test
+    public void sharesEqualStrings() {
+        StringPool pool = new StringPool();
+        String first = pool.intern(new String("Ball"));
+        assertSame(first, pool.intern(new String("Ball")));
+        assertSame(first, pool.intern(first));
+        assertEquals(1, pool.size());
+        assertEquals(1, pool.getDuplicates());
+        assertEquals(StringPool.estimateSize("Ball"), pool.getBytesSaved());
+    }
+
+    @Test
+    public void importsShareArtists() throws Exception {
+        StringPool pool = new StringPool();
+        ArrayList<Song> songs = Song.importSongsFromJson(new StringReader(JSON), pool);
+        assertSame(songs.get(0).getArtist(), songs.get(2).getArtist());
+        assertEquals(2, pool.getDuplicates());
+
+        StringPool streamPool = new StringPool();
+        ArrayList<Song> streamed = new ArrayList<>();
+        Song.streamSongsFromJson(new StringReader(JSON), streamPool)
+            .forEachRemaining(streamed::add);
+        assertSame(streamed.get(0).getArtist(), streamed.get(1).getArtist());
+        assertEquals(pool.getBytesSaved(), streamPool.getBytesSaved());
+    }
+}
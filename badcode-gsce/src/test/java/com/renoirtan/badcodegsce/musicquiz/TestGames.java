@@ -0,0 +1,47 @@
+package com.renoirtan.badcodegsce.musicquiz;
+
+/**
+ * Builds small games for the tests of games and the classes around them.
+ */
+final class TestGames {
+    private TestGames() {
+    }
+
+    /**
+     * Create a game. The songs are named "Song 0", "Song 1" and so on, all
+     * by "Artist". The players are named "Bot &lt;gameId&gt;-0",
+     * "Bot &lt;gameId&gt;-1" and so on, with the IDs 0, 1 and so on.
+     * 
+     * @param seed The master seed of the game.
+     * @param gameId The ID of the game.
+     * @param players The number of players.
+     * @param songs The number of songs.
+     * @param strategy How the players guess, or null to leave the game's
+     * input as it is.
+     * @return The game.
+     */
+    static Game create(
+        long seed,
+        int gameId,
+        int players,
+        int songs,
+        BotStrategy strategy
+    ) {
+        Game game = new Game(seed, gameId);
+        for (int song = 0; song < songs; song++) {
+            game.getSongsManager().addSong(new Song("Song " + song, "Artist"));
+        }
+        for (int player = 0; player < players; player++) {
+            game.getPlayersManager().addPlayer(
+                new Player("Bot " + gameId + "-" + player, player)
+            );
+        }
+        if (strategy != null) {
+            game.setIO(null, new BotGuessSource(
+                strategy,
+                GameRandom.forGame(~seed, gameId)
+            ));
+        }
+        return game;
+    }
+}